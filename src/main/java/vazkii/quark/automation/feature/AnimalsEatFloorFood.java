@@ -1,37 +1,56 @@
 package vazkii.quark.automation.feature;
 
-import java.util.List;
-
 import net.minecraft.entity.item.EntityItem;
 import net.minecraft.entity.passive.EntityAnimal;
-import net.minecraft.init.Items;
 import net.minecraft.item.ItemStack;
-import net.minecraftforge.event.entity.living.LivingEvent.LivingUpdateEvent;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import vazkii.quark.automation.world.FloorFoodIndex;
+import vazkii.quark.base.handler.LivingUpdateHandler;
 import vazkii.quark.base.module.Feature;
 
 public class AnimalsEatFloorFood extends Feature {
 
+	int checkInterval;
+	
+	public AnimalsEatFloorFood() {
+		LivingUpdateHandler.register(this, EntityAnimal.class, this::onEntityTick);
+	}
+	
+	@Override
+	public void setupConfig() {
+		checkInterval = loadPropInt("Check Interval", "How many ticks each animal waits between looking for food on the floor. Animals are spread out over this interval.", 10);
+	}
+	
+	@Override
+	public void onDisabled() {
+		FloorFoodIndex.scheduleClear();
+	}
+	
 	@SubscribeEvent
-	public void onEntityTick(LivingUpdateEvent event) {
-		if(event.getEntityLiving() instanceof EntityAnimal) {
-			EntityAnimal animal = (EntityAnimal) event.getEntityLiving();
-			if(animal.getGrowingAge() == 0 && !animal.isInLove() && !animal.isDead) {
-				double range = 2;
-				List<EntityItem> nearbyFood = animal.getEntityWorld().<EntityItem>getEntitiesWithinAABB(EntityItem.class, animal.getEntityBoundingBox().expand(range, 0, range),
-						(EntityItem i) -> !i.getItem().isEmpty() && !i.isDead && animal.isBreedingItem(i.getItem()) && i.getItem().getItem() != Items.ROTTEN_FLESH);
+	public void onWorldUnload(WorldEvent.Unload event) {
+		if(!event.getWorld().isRemote)
+			FloorFoodIndex.unload(event.getWorld());
+	}
+	
+	public void onEntityTick(EntityAnimal animal) {
+		World world = animal.getEntityWorld();
+		if(world.isRemote || (world.getTotalWorldTime() + animal.getEntityId()) % Math.max(1, checkInterval) != 0)
+			return;
+		
+		if(animal.getGrowingAge() == 0 && !animal.isInLove() && !animal.isDead) {
+			double range = 2;
+			EntityItem e = FloorFoodIndex.get(world).findFood(animal, animal.getEntityBoundingBox().expand(range, 0, range));
+			
+			if(e != null) {
+				ItemStack stack = e.getItem();
+				stack.shrink(1);
+				e.setItem(stack);
+				if(stack.isEmpty())
+					e.setDead();
 				
-				if(!nearbyFood.isEmpty()) {
-					EntityItem e = nearbyFood.get(0);
-					
-					ItemStack stack = e.getItem();
-					stack.shrink(1);
-					e.setItem(stack);
-					if(stack.isEmpty())
-						e.setDead();
-					
-					animal.setInLove(null);
-				}
+				animal.setInLove(null);
 			}
 		}
 	}
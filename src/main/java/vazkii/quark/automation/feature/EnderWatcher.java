@@ -28,6 +28,13 @@ import vazkii.quark.world.feature.Biotite;
 public class EnderWatcher extends Feature {
 
 	public static Block ender_watcher;
+	
+	public static int checkInterval;
+
+	@Override
+	public void setupConfig() {
+		checkInterval = loadPropInt("Check Interval", "How many ticks an Ender Watcher waits between checking whether it's being looked at. Set to 1 to check every tick.", 4);
+	}
 
 	@Override
 	public void preInit(FMLPreInitializationEvent event) {
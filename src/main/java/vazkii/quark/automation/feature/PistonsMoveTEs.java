@@ -1,6 +1,8 @@
 package vazkii.quark.automation.feature;
 
-import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockChest;
 import net.minecraft.block.BlockJukebox;
@@ -12,11 +14,13 @@ import net.minecraft.util.EnumFacing;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
+import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
 import net.minecraftforge.fml.common.gameevent.TickEvent.WorldTickEvent;
 import org.apache.commons.lang3.tuple.Pair;
 import vazkii.quark.api.IPistonCallback;
+import vazkii.quark.base.handler.StatsHandler;
 import vazkii.quark.base.module.Feature;
 import vazkii.quark.base.module.ModuleLoader;
 
@@ -24,12 +28,23 @@ import java.util.*;
 
 public class PistonsMoveTEs extends Feature {
 
-	private static WeakHashMap<World, Map<BlockPos, TileEntity>> movements = new WeakHashMap<>();
+	private static WeakHashMap<World, Long2ObjectMap<TileEntity>> movements = new WeakHashMap<>();
 	private static WeakHashMap<World, List<Pair<BlockPos, TileEntity>>> delayedUpdates = new WeakHashMap<>();
 
-	public static List<String> renderBlacklist;
-	public static List<String> movementBlacklist;
-	public static List<String> delayedUpdateList;
+	public static Set<String> renderBlacklist;
+	public static Set<String> movementBlacklist;
+	public static Set<String> delayedUpdateList;
+	
+	// Resolved from the lists above the first time they're needed after a config load, as
+	// other mods' blocks may not be registered yet when the config is read
+	private static Set<Block> movementBlacklistBlocks;
+	private static Set<Block> delayedUpdateBlocks;
+	
+	// Server side only, folded into the totals at the end of each world tick
+	private static int tickMoved, tickPlaced;
+	private static long tickNanos;
+	private static long ticksWithMoves, totalMoved, totalPlaced, totalNanos, maxTickNanos;
+	private static int maxTickMoved;
 
 	@Override
 	public void setupConfig() {
@@ -40,14 +55,36 @@ public class PistonsMoveTEs extends Feature {
 		String[] delayedUpdateListArray = loadPropStringList("Delayed Update List", "List of blocks whose tile entity update should be delayed by one tick after placed to prevent corruption.", 
 				new String[] { "minecraft:dispenser", "minecraft:dropper" });
 		
-		renderBlacklist = Lists.newArrayList(renderBlacklistArray);
-		movementBlacklist = Lists.newArrayList(movementBlacklistArray);
-		delayedUpdateList = Lists.newArrayList(delayedUpdateListArray);
+		renderBlacklist = Sets.newHashSet(renderBlacklistArray);
+		movementBlacklist = Sets.newHashSet(movementBlacklistArray);
+		delayedUpdateList = Sets.newHashSet(delayedUpdateListArray);
+		
+		movementBlacklistBlocks = null;
+		delayedUpdateBlocks = null;
+	}
+	
+	@Override
+	public void preInit(FMLPreInitializationEvent event) {
+		StatsHandler.register("pistons.tiles", PistonsMoveTEs::getStats);
 	}
 	
 	@SubscribeEvent
 	public void onWorldTick(WorldTickEvent event) {
-		if(!delayedUpdates.containsKey(event.world) || event.phase == Phase.START)
+		if(event.phase == Phase.START)
+			return;
+		
+		if(tickMoved > 0 || tickPlaced > 0) {
+			ticksWithMoves++;
+			totalMoved += tickMoved;
+			totalPlaced += tickPlaced;
+			totalNanos += tickNanos;
+			maxTickMoved = Math.max(maxTickMoved, tickMoved);
+			maxTickNanos = Math.max(maxTickNanos, tickNanos);
+			tickMoved = tickPlaced = 0;
+			tickNanos = 0;
+		}
+		
+		if(!delayedUpdates.containsKey(event.world))
 			return;
 		
 		List<Pair<BlockPos, TileEntity>> delays = delayedUpdates.get(event.world);
@@ -71,14 +108,28 @@ public class PistonsMoveTEs extends Feature {
 		if(state.getPropertyKeys().contains(BlockJukebox.HAS_RECORD) && state.getValue(BlockJukebox.HAS_RECORD))
 			return true;
 		
-		ResourceLocation res = Block.REGISTRY.getNameForObject(state.getBlock());
-		return PistonsMoveTEs.movementBlacklist.contains(res.toString()) || PistonsMoveTEs.movementBlacklist.contains(res.getNamespace());
+		if(movementBlacklistBlocks == null)
+			movementBlacklistBlocks = resolveBlocks(movementBlacklist, true);
+		
+		return movementBlacklistBlocks.contains(state.getBlock());
+	}
+	
+	private static Set<Block> resolveBlocks(Set<String> names, boolean allowNamespaces) {
+		Set<Block> blocks = Sets.newIdentityHashSet();
+		for(Block block : Block.REGISTRY) {
+			ResourceLocation res = block.getRegistryName();
+			if(res != null && (names.contains(res.toString()) || (allowNamespaces && names.contains(res.getNamespace()))))
+				blocks.add(block);
+		}
+		
+		return blocks;
 	}
 	
 	public static void detachTileEntities(World world, BlockPos sourcePos, BlockPistonStructureHelper helper, EnumFacing facing, boolean extending) {
 		if(!ModuleLoader.isFeatureEnabled(PistonsMoveTEs.class))
 			return;
 		
+		long start = System.nanoTime();
 		List<BlockPos> moveList = helper.getBlocksToMove();
 		
 		for(BlockPos pos : moveList) {
@@ -92,9 +143,14 @@ public class PistonsMoveTEs extends Feature {
 					world.removeTileEntity(pos);
 
 					registerMovement(world, pos.offset(facing), tile);
+					if(!world.isRemote)
+						tickMoved++;
 				}
 			}
 		}
+		
+		if(!world.isRemote)
+			tickNanos += System.nanoTime() - start;
 	}
 	
 	public static boolean setPistonBlock(World world, BlockPos pos, IBlockState state, int flags) {
@@ -103,6 +159,7 @@ public class PistonsMoveTEs extends Feature {
 			return false;
 		}
 		
+		long start = System.nanoTime();
 		Block block = state.getBlock();
 		TileEntity tile = getAndClearMovement(world, pos);
 		boolean destroyed = false;
@@ -132,7 +189,11 @@ public class PistonsMoveTEs extends Feature {
 				world.setBlockState(pos, state, 0);
 			
 			if(tile != null && !world.isRemote) {
-				if(delayedUpdateList.contains(Block.REGISTRY.getNameForObject(block).toString()))
+				tickPlaced++;
+				if(delayedUpdateBlocks == null)
+					delayedUpdateBlocks = resolveBlocks(delayedUpdateList, false);
+				
+				if(delayedUpdateBlocks.contains(block))
 					registerDelayedUpdate(world, pos, tile);
 				else {
 					world.setTileEntity(pos, tile);
@@ -146,14 +207,14 @@ public class PistonsMoveTEs extends Feature {
 			world.notifyNeighborsOfStateChange(pos, block, true);
 		}
 		
+		if(!world.isRemote)
+			tickNanos += System.nanoTime() - start;
+		
 		return false; // the value is popped, doesn't matter what we return
 	}
 	
 	private static void registerMovement(World world, BlockPos pos, TileEntity tile) {
-		if(!movements.containsKey(world))
-			movements.put(world, new HashMap<>());
-		
-		movements.get(world).put(pos, tile);
+		movements.computeIfAbsent(world, (World w) -> new Long2ObjectOpenHashMap<>()).put(pos.toLong(), tile);
 	}
 	
 	public static TileEntity getMovement(World world, BlockPos pos) {
@@ -161,18 +222,12 @@ public class PistonsMoveTEs extends Feature {
 	}
 	
 	private static TileEntity getMovement(World world, BlockPos pos, boolean remove) {
-		if(!movements.containsKey(world))
+		Long2ObjectMap<TileEntity> worldMovements = movements.get(world);
+		if(worldMovements == null)
 			return null;
 		
-		Map<BlockPos, TileEntity> worldMovements = movements.get(world);
-		if(!worldMovements.containsKey(pos))
-			return null;
-		
-		TileEntity ret = worldMovements.get(pos);
-		if(remove)
-			worldMovements.remove(pos);
-		
-		return ret; 
+		long key = pos.toLong();
+		return remove ? worldMovements.remove(key) : worldMovements.get(key);
 	}
 	
 	private static TileEntity getAndClearMovement(World world, BlockPos pos) {
@@ -197,6 +252,11 @@ public class PistonsMoveTEs extends Feature {
 		delayedUpdates.get(world).add(Pair.of(pos, tile));
 	}
 	
+	public static String getStats() {
+		return String.format("%d ticks with moves, %d tile entities detached, %d placed, %d most in one tick, %.3f ms in hooks (%.3f ms worst tick)",
+				ticksWithMoves, totalMoved, totalPlaced, maxTickMoved, totalNanos / 1e6, maxTickNanos / 1e6);
+	}
+	
 	@Override
 	public boolean hasSubscriptions() {
 		return true;
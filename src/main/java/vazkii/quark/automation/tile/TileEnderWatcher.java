@@ -18,7 +18,6 @@ import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.EnumParticleTypes;
 import net.minecraft.util.ITickable;
-import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.RayTraceResult;
 import net.minecraft.util.math.Vec3d;
@@ -26,34 +25,28 @@ import net.minecraft.world.World;
 import net.minecraft.world.WorldServer;
 import vazkii.arl.block.tile.TileMod;
 import vazkii.quark.automation.block.BlockEnderWatcher;
-
-import java.util.List;
+import vazkii.quark.automation.feature.EnderWatcher;
 
 public class TileEnderWatcher extends TileMod implements ITickable {
 
+	private static final double RANGE = 64;
+	// Slightly more than half the diagonal of a block, so the cone never rejects a ray that would hit it
+	private static final double BLOCK_RADIUS_SQ = 0.9 * 0.9;
+
 	@Override
 	public void update() {
 		if(getWorld().isRemote)
 			return;
 
 		boolean wasLooking = getWorld().getBlockState(getPos()).getValue(BlockEnderWatcher.WATCHED);
-		int range = 80;
-		List<EntityPlayer> players = getWorld().getEntitiesWithinAABB(EntityPlayer.class, new AxisAlignedBB(pos.add(-range, -range, -range), pos.add(range, range, range)));
-
-		boolean looking = false;
-		for(EntityPlayer player : players) {
-			ItemStack helm = player.getItemStackFromSlot(EntityEquipmentSlot.HEAD);
-			if(helm != null && helm.getItem() == Item.getItemFromBlock(Blocks.PUMPKIN))
-				continue;
+		boolean looking = wasLooking;
+		
+		// Watchers take turns so a wall of them doesn't trace every player on the same tick
+		int interval = Math.max(1, EnderWatcher.checkInterval);
+		if(Math.floorMod(getWorld().getTotalWorldTime() + getPos().hashCode(), interval) == 0)
+			looking = isWatched();
 
-			RayTraceResult pos = raytraceFromEntity(getWorld(), player, true, 64);
-			if(pos != null && pos.getBlockPos() != null && pos.getBlockPos().equals(getPos())) {
-				looking = true;
-				break;
-			}
-		}
-
-		if(looking != wasLooking && !getWorld().isRemote)
+		if(looking != wasLooking)
 			getWorld().setBlockState(getPos(), getWorld().getBlockState(getPos()).withProperty(BlockEnderWatcher.WATCHED, looking), 1 | 2);
 
 		if(looking) {
@@ -65,6 +58,42 @@ public class TileEnderWatcher extends TileMod implements ITickable {
 		}
 	}
 
+	private boolean isWatched() {
+		double x = pos.getX() + 0.5;
+		double y = pos.getY() + 0.5;
+		double z = pos.getZ() + 0.5;
+		
+		for(EntityPlayer player : getWorld().playerEntities) {
+			double dx = x - player.posX;
+			double dy = y - (player.posY + player.eyeHeight);
+			double dz = z - player.posZ;
+			double distSq = dx * dx + dy * dy + dz * dz;
+			if(distSq > (RANGE + 1) * (RANGE + 1) || player.isSpectator())
+				continue;
+
+			ItemStack helm = player.getItemStackFromSlot(EntityEquipmentSlot.HEAD);
+			if(helm.getItem() == Item.getItemFromBlock(Blocks.PUMPKIN))
+				continue;
+
+			// The look vector only comes within BLOCK_RADIUS of the block's center if its angle to the
+			// direction of the block is under asin(r / dist), so skip the trace for anyone looking away
+			if(distSq > BLOCK_RADIUS_SQ) {
+				float yaw = player.rotationYaw * 0.017453292F;
+				float pitch = player.rotationPitch * 0.017453292F;
+				float cosPitch = MathHelper.cos(pitch);
+				double dot = -MathHelper.sin(yaw) * cosPitch * dx - MathHelper.sin(pitch) * dy + MathHelper.cos(yaw) * cosPitch * dz;
+				if(dot <= 0 || dot * dot < distSq - BLOCK_RADIUS_SQ)
+					continue;
+			}
+
+			RayTraceResult result = raytraceFromEntity(getWorld(), player, true, RANGE);
+			if(result != null && result.getBlockPos() != null && result.getBlockPos().equals(getPos()))
+				return true;
+		}
+		
+		return false;
+	}
+
 	public static RayTraceResult raytraceFromEntity(World world, Entity player, boolean par3, double range) {
 		float f = 1.0F;
 		float f1 = player.prevRotationPitch + (player.rotationPitch - player.prevRotationPitch) * f;
@@ -0,0 +1,135 @@
+package vazkii.quark.automation.world;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.entity.item.EntityItem;
+import net.minecraft.entity.passive.EntityAnimal;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.common.FMLCommonHandler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Every item entity in a server world, bucketed by chunk so animals looking for food only
+ * go through the items around them. Items are tracked through a world listener as they're
+ * added and removed, and re-bucketed at most once per tick, the first time anything asks.
+ */
+public class FloorFoodIndex {
+
+	// Server thread only. Each index holds on to items in its world, so it has to be dropped
+	// explicitly when the world unloads rather than left to a weak key
+	private static final Map<World, FloorFoodIndex> indexes = new HashMap<>();
+
+	private final FloorFoodWorldListener listener;
+	private final Set<EntityItem> items = new ReferenceOpenHashSet<>();
+	private final Long2ObjectMap<List<EntityItem>> itemsByChunk = new Long2ObjectOpenHashMap<>();
+	private long bucketedAt = -1;
+
+	private FloorFoodIndex(World world) {
+		listener = new FloorFoodWorldListener(this);
+
+		for(EntityItem item : world.getEntities(EntityItem.class, (EntityItem e) -> !e.isDead))
+			items.add(item);
+		world.addEventListener(listener);
+	}
+
+	public static FloorFoodIndex get(World world) {
+		FloorFoodIndex index = indexes.get(world);
+		if(index == null) {
+			index = new FloorFoodIndex(world);
+			indexes.put(world, index);
+		}
+
+		return index;
+	}
+
+	public static void unload(World world) {
+		FloorFoodIndex index = indexes.remove(world);
+		if(index != null)
+			world.removeEventListener(index.listener);
+	}
+
+	// Features are disabled from whichever thread reloaded the config, the listeners must be
+	// removed on the server thread as it may be going through them
+	public static void scheduleClear() {
+		MinecraftServer server = FMLCommonHandler.instance().getMinecraftServerInstance();
+		if(server != null)
+			server.addScheduledTask(FloorFoodIndex::clear);
+	}
+
+	private static void clear() {
+		for(Map.Entry<World, FloorFoodIndex> entry : indexes.entrySet())
+			entry.getKey().removeEventListener(entry.getValue().listener);
+		indexes.clear();
+	}
+
+	public EntityItem findFood(EntityAnimal animal, AxisAlignedBB area) {
+		if(items.isEmpty())
+			return null;
+
+		long time = animal.getEntityWorld().getTotalWorldTime();
+		if(bucketedAt != time) {
+			bucket();
+			bucketedAt = time;
+		}
+
+		// One block of slack, as items are bucketed by their position but matched by their bounding box
+		int minX = MathHelper.floor(area.minX - 1) >> 4;
+		int maxX = MathHelper.floor(area.maxX + 1) >> 4;
+		int minZ = MathHelper.floor(area.minZ - 1) >> 4;
+		int maxZ = MathHelper.floor(area.maxZ + 1) >> 4;
+
+		for(int x = minX; x <= maxX; x++)
+			for(int z = minZ; z <= maxZ; z++) {
+				List<EntityItem> chunkItems = itemsByChunk.get(ChunkPos.asLong(x, z));
+				if(chunkItems == null)
+					continue;
+
+				for(EntityItem item : chunkItems)
+					if(isFood(item) && animal.isBreedingItem(item.getItem()) && area.intersects(item.getEntityBoundingBox()))
+						return item;
+			}
+
+		return null;
+	}
+
+	void add(EntityItem item) {
+		items.add(item);
+	}
+
+	void remove(EntityItem item) {
+		items.remove(item);
+	}
+
+	private void bucket() {
+		itemsByChunk.clear();
+		for(EntityItem item : items)
+			if(isFood(item)) {
+				long key = ChunkPos.asLong(MathHelper.floor(item.posX) >> 4, MathHelper.floor(item.posZ) >> 4);
+				List<EntityItem> chunkItems = itemsByChunk.get(key);
+				if(chunkItems == null) {
+					chunkItems = new ArrayList<>();
+					itemsByChunk.put(key, chunkItems);
+				}
+
+				chunkItems.add(item);
+			}
+	}
+
+	private static boolean isFood(EntityItem item) {
+		ItemStack stack = item.getItem();
+		return !item.isDead && !stack.isEmpty() && stack.getItem() != Items.ROTTEN_FLESH;
+	}
+
+}
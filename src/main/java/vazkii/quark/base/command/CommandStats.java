@@ -0,0 +1,45 @@
+package vazkii.quark.base.command;
+
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.util.text.TextComponentTranslation;
+import vazkii.quark.base.handler.StatsHandler;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+
+public class CommandStats extends CommandBase {
+
+	@Nonnull
+	@Override
+	public String getName() {
+		return "quarkstats";
+	}
+
+	@Nonnull
+	@Override
+	public String getUsage(@Nonnull ICommandSender sender) {
+		return "commands.quarkstats.usage";
+	}
+
+	@Override
+	public int getRequiredPermissionLevel() {
+		return 2;	
+	}
+
+	@Override
+	public void execute(@Nonnull MinecraftServer server, @Nonnull ICommandSender sender, @Nonnull String[] args) throws CommandException {
+		Map<String, String> values = StatsHandler.collect(args.length > 0 ? args[0] : null);
+		if(values.isEmpty()) {
+			sender.sendMessage(new TextComponentTranslation("commands.quarkstats.empty"));
+			return;
+		}
+		
+		for(Map.Entry<String, String> entry : values.entrySet())
+			sender.sendMessage(new TextComponentString(entry.getKey() + ": " + entry.getValue()));
+	}
+
+}
@@ -0,0 +1,181 @@
+package vazkii.quark.base.handler;
+
+import com.google.common.collect.MapMaker;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityLiving;
+import net.minecraft.entity.ai.EntityAIBase;
+import net.minecraft.entity.ai.EntityAITasks.EntityAITaskEntry;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.event.entity.EntityJoinWorldEvent;
+import net.minecraftforge.fml.common.FMLCommonHandler;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import vazkii.quark.api.module.FeatureEvent;
+import vazkii.quark.base.lib.LibMisc;
+import vazkii.quark.base.module.Feature;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Adds features' AI tasks to entities once, when they join the world, rather than having
+ * every feature look through the task list of every entity on every tick.
+ */
+@Mod.EventBusSubscriber(modid = LibMisc.MOD_ID)
+public final class AITaskHandler {
+
+	private static final List<Injection> injections = new ArrayList<>();
+	private static final Injection[] NONE = new Injection[0];
+
+	private static volatile Map<Class<?>, Injection[]> injectionCache = new ConcurrentHashMap<>();
+
+	// AI tasks aren't saved with the entity, so the marker can't be either: an entity read back
+	// from disk is a new object with its default tasks, and needs them injected again. Entities
+	// compare by ID, so the set goes by identity instead, and drops entities once they're gone
+	private static final Set<Entity> injected = Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
+
+	/**
+	 * Gives every entity of the given class a task of taskClass at the given priority, unless it
+	 * already has one. The factory may return null to skip an entity.
+	 */
+	public static <T extends EntityLiving> void addTask(Feature feature, Class<T> clazz, Class<? extends EntityAIBase> taskClass, int priority, Function<T, EntityAIBase> factory) {
+		replaceTask(feature, clazz, taskClass, null, priority, factory);
+	}
+
+	/**
+	 * Same as {@link #addTask}, but only for entities that have a task of the replaced class,
+	 * which is removed. Call this from the feature's constructor.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T extends EntityLiving> void replaceTask(Feature feature, Class<T> clazz, Class<? extends EntityAIBase> taskClass, Class<? extends EntityAIBase> replaced, int priority, Function<T, EntityAIBase> factory) {
+		synchronized(injections) {
+			injections.add(new Injection(feature, clazz, taskClass, replaced, priority, (Function<EntityLiving, EntityAIBase>) factory));
+			injectionCache = new ConcurrentHashMap<>();
+		}
+	}
+
+	@SubscribeEvent
+	public static void onEntityJoinWorld(EntityJoinWorldEvent event) {
+		if(!event.getWorld().isRemote)
+			inject(event.getEntity());
+	}
+
+	@SubscribeEvent
+	public static void onFeatureEnabled(FeatureEvent.PostEnable event) {
+		setActive(event.getFeature(), true);
+	}
+
+	@SubscribeEvent
+	public static void onFeatureDisabled(FeatureEvent.Disabled event) {
+		setActive(event.getFeature(), false);
+	}
+
+	private static void setActive(Object feature, boolean active) {
+		synchronized(injections) {
+			boolean changed = false;
+			for(Injection injection : injections)
+				if(injection.feature == feature && injection.active != active) {
+					injection.active = active;
+					changed = true;
+				}
+
+			if(changed) {
+				injectionCache = new ConcurrentHashMap<>();
+				injected.clear();
+
+				if(active)
+					injectLoaded();
+			}
+		}
+	}
+
+	/**
+	 * Entities only join the world once, so the ones already loaded when a feature gets enabled
+	 * have to be caught up here.
+	 */
+	private static void injectLoaded() {
+		MinecraftServer server = FMLCommonHandler.instance().getMinecraftServerInstance();
+		if(server == null)
+			return;
+
+		server.addScheduledTask(() -> {
+			for(WorldServer world : server.worlds)
+				for(Entity entity : world.loadedEntityList)
+					inject(entity);
+		});
+	}
+
+	private static void inject(Entity entity) {
+		if(!(entity instanceof EntityLiving))
+			return;
+
+		Injection[] targets = injectionCache.computeIfAbsent(entity.getClass(), AITaskHandler::collect);
+		if(targets.length == 0 || !injected.add(entity))
+			return;
+
+		EntityLiving living = (EntityLiving) entity;
+		for(Injection injection : targets)
+			injection.apply(living);
+	}
+
+	private static Injection[] collect(Class<?> entityClass) {
+		List<Injection> matching = new ArrayList<>();
+		synchronized(injections) {
+			for(Injection injection : injections)
+				if(injection.active && injection.clazz.isAssignableFrom(entityClass))
+					matching.add(injection);
+		}
+
+		return matching.isEmpty() ? NONE : matching.toArray(NONE);
+	}
+
+	private static class Injection {
+
+		private final Feature feature;
+		private final Class<?> clazz;
+		private final Class<? extends EntityAIBase> taskClass;
+		private final Class<? extends EntityAIBase> replaced;
+		private final int priority;
+		private final Function<EntityLiving, EntityAIBase> factory;
+		private boolean active;
+
+		private Injection(Feature feature, Class<?> clazz, Class<? extends EntityAIBase> taskClass, Class<? extends EntityAIBase> replaced, int priority, Function<EntityLiving, EntityAIBase> factory) {
+			this.feature = feature;
+			this.clazz = clazz;
+			this.taskClass = taskClass;
+			this.replaced = replaced;
+			this.priority = priority;
+			this.factory = factory;
+		}
+
+		private void apply(EntityLiving entity) {
+			EntityAIBase toReplace = null;
+			for(EntityAITaskEntry entry : entity.tasks.taskEntries) {
+				if(taskClass.isInstance(entry.action))
+					return;
+				if(replaced != null && toReplace == null && replaced.isInstance(entry.action))
+					toReplace = entry.action;
+			}
+
+			if(replaced != null && toReplace == null)
+				return;
+
+			EntityAIBase task = factory.apply(entity);
+			if(task == null)
+				return;
+
+			if(toReplace != null)
+				entity.tasks.removeTask(toReplace);
+
+			entity.tasks.addTask(priority, task);
+		}
+
+	}
+
+}
@@ -3,12 +3,16 @@ package vazkii.quark.base.handler;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.text.WordUtils;
 
 import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
 import net.minecraft.world.biome.Biome;
+import net.minecraft.world.chunk.Chunk;
 import net.minecraftforge.common.BiomeDictionary;
 import vazkii.quark.base.module.ModuleLoader;
 import vazkii.quark.world.world.StoneInfoBasedGenerator;
@@ -34,6 +38,50 @@ public final class BiomeTypeConfigHandler {
 			return false;
 	}
 	
+	/**
+	 * Flattens a biome check into a table indexed by biome ID. BiomeDictionary isn't complete
+	 * until every mod has registered its biomes, so build these lazily, not when config loads.
+	 * The table is sized to the highest registered ID, as mods can extend biome IDs past 255.
+	 */
+	public static boolean[] buildBiomeMask(Predicate<Biome> predicate) {
+		int maxId = 255;
+		for(Biome b : Biome.REGISTRY)
+			maxId = Math.max(maxId, Biome.getIdForBiome(b));
+		
+		boolean[] mask = new boolean[maxId + 1];
+		for(Biome b : Biome.REGISTRY) {
+			int id = Biome.getIdForBiome(b);
+			if(id >= 0)
+				mask[id] = predicate.test(b);
+		}
+		
+		return mask;
+	}
+	
+	/**
+	 * Whether the biome at the given position is in a table from {@link #buildBiomeMask}. Biomes
+	 * with IDs the table doesn't cover aren't in it.
+	 */
+	public static boolean isInBiomeMask(boolean[] mask, World world, BlockPos pos) {
+		int id = getBiomeId(world, pos);
+		return id >= 0 && id < mask.length && mask[id];
+	}
+	
+	/**
+	 * Reads the biome ID straight from the chunk's biome array when it's loaded and populated,
+	 * falling back to the world's lookup otherwise.
+	 */
+	public static int getBiomeId(World world, BlockPos pos) {
+		Chunk chunk = world.getChunkProvider().getLoadedChunk(pos.getX() >> 4, pos.getZ() >> 4);
+		if(chunk != null) {
+			int id = chunk.getBiomeArray()[(pos.getZ() & 15) << 4 | (pos.getX() & 15)] & 255;
+			if(id != 255)
+				return id;
+		}
+		
+		return Biome.getIdForBiome(world.getBiome(pos));
+	}
+	
 	public static void debugStoneGeneration(Iterable<StoneInfoBasedGenerator> generators) {
 		System.out.println("### OUTPUTTING BIOME CSV DATA ###");
 		System.out.print("sep=;\nBiome");
@@ -17,9 +17,11 @@ import net.minecraft.inventory.Container;
 import net.minecraft.inventory.IInventory;
 import net.minecraft.inventory.Slot;
 import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
 import net.minecraftforge.items.CapabilityItemHandler;
 import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.items.ItemHandlerHelper;
@@ -37,7 +39,10 @@ import vazkii.quark.management.feature.StoreToChests;
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
 
 public final class DropoffHandler {
@@ -67,8 +72,10 @@ public final class DropoffHandler {
 	}
 
 	public static IItemHandler getInventory(EntityPlayer player, World world, BlockPos pos) {
-		TileEntity te = world.getTileEntity(pos);
-
+		return getInventory(player, world.getTileEntity(pos));
+	}
+	
+	public static IItemHandler getInventory(EntityPlayer player, TileEntity te) {
 		if(te == null)
 			return null;
 		
@@ -158,26 +165,8 @@ public final class DropoffHandler {
 		}
 
 		public void smartDropoff() {
-			dropoff((stack, handler) -> {
-				int slots = handler.getSlots();
-				for(int i = 0; i < slots; i++) {
-					ItemStack stackAt = handler.getStackInSlot(i);
-					if(stackAt.isEmpty())
-						continue;
-
-					boolean itemEqual = stack.getItem() == stackAt.getItem();
-					boolean damageEqual = stack.getItemDamage() == stackAt.getItemDamage();
-					boolean nbtEqual = ItemStack.areItemStackTagsEqual(stackAt, stack);
-
-					if(itemEqual && damageEqual && nbtEqual)
-						return true;
-
-					if(!stack.getHasSubtypes() && stack.isItemStackDamageable() && stack.getMaxStackSize() == 1 && itemEqual && nbtEqual)
-						return true;
-				}
-
-				return false;
-			});
+			ContentIndex index = new ContentIndex(itemHandlers);
+			dropoff(index::contains);
 		}
 
 		public void roughDropoff() {
@@ -195,24 +184,42 @@ public final class DropoffHandler {
 					}
 				}
 			} else {
+				World world = player.getEntityWorld();
 				BlockPos playerPos = player.getPosition();
 				int range = 6;
-
-				for(int i = -range; i < range * 2 + 1; i++)
-					for(int j = -range; j < range * 2 + 1; j++)
-						for(int k = -range; k < range * 2 + 1; k++) {
-							BlockPos pos = playerPos.add(i, j, k);
-							findHandler(pos);
+				
+				int minX = playerPos.getX() - range, maxX = playerPos.getX() + range;
+				int minY = playerPos.getY() - range, maxY = playerPos.getY() + range;
+				int minZ = playerPos.getZ() - range, maxZ = playerPos.getZ() + range;
+
+				// Chunks already keep their tile entities by position, so only those need checking
+				for(int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++)
+					for(int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+						Chunk chunk = world.getChunkProvider().getLoadedChunk(chunkX, chunkZ);
+						if(chunk == null)
+							continue;
+						
+						for(TileEntity te : chunk.getTileEntityMap().values()) {
+							BlockPos pos = te.getPos();
+							if(!te.isInvalid() && pos.getX() >= minX && pos.getX() <= maxX && pos.getY() >= minY && pos.getY() <= maxY && pos.getZ() >= minZ && pos.getZ() <= maxZ)
+								findHandler(te);
 						}
+					}
 
 				itemHandlers.sort(Comparator.comparingDouble(Pair::getRight));
 			}
 		}
 
 		public void findHandler(BlockPos pos) {
-			IItemHandler handler = getInventory(player, player.getEntityWorld(), pos);
-			if(handler != null)
+			findHandler(player.getEntityWorld().getTileEntity(pos));
+		}
+		
+		public void findHandler(TileEntity te) {
+			IItemHandler handler = getInventory(player, te);
+			if(handler != null) {
+				BlockPos pos = te.getPos();
 				itemHandlers.add(Pair.of(handler, player.getDistanceSq(pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5)));
+			}
 		}
 
 		public void dropoff(DropoffPredicate pred) {
@@ -259,14 +266,25 @@ public final class DropoffHandler {
 
 	public static class Restock extends Dropoff {
 
+		IItemHandler playerInv;
+
 		public Restock(EntityPlayer player, boolean filtered) {
 			super(player, filtered, true);
 		}
 
+		// Restocking goes the other way, so it's the player's inventory that has to already hold the stack
+		@Override
+		public void smartDropoff() {
+			playerInv = new PlayerInvWrapper(player.inventory);
+			ContentIndex index = new ContentIndex(playerInv);
+			dropoff(index::contains);
+		}
+
 		@Override
 		public void dropoff(DropoffPredicate pred) {
 			IItemHandler inv = itemHandlers.get(0).getLeft();
-			IItemHandler playerInv = new PlayerInvWrapper(player.inventory);
+			if(playerInv == null)
+				playerInv = new PlayerInvWrapper(player.inventory);
 
 			for(int i = inv.getSlots() - 1; i >= 0; i--) {
 				ItemStack stackAt = inv.getStackInSlot(i);
@@ -285,6 +303,89 @@ public final class DropoffHandler {
 		}
 	}
 
+	/**
+	 * What each handler held when the dropoff started, so smart dropoff can look stacks up
+	 * instead of scanning every slot of every handler for every stack. Inserting only ever adds
+	 * items to handlers that already matched, so it doesn't go stale during the dropoff.
+	 */
+	public static class ContentIndex {
+
+		// Item, meta and tag hash -> handler -> the distinct stacks it holds under that hash
+		final Map<Integer, Map<IItemHandler, List<ItemStack>>> exact = new HashMap<>();
+		// Same without the meta, for damaged tools
+		final Map<Integer, Map<IItemHandler, List<ItemStack>>> loose = new HashMap<>();
+
+		public ContentIndex(List<Pair<IItemHandler, Double>> itemHandlers) {
+			for(Pair<IItemHandler, Double> pair : itemHandlers)
+				index(pair.getLeft());
+		}
+
+		public ContentIndex(IItemHandler handler) {
+			index(handler);
+		}
+
+		private void index(IItemHandler handler) {
+			int slots = handler.getSlots();
+			for(int i = 0; i < slots; i++) {
+				ItemStack stackAt = handler.getStackInSlot(i);
+				if(stackAt.isEmpty())
+					continue;
+
+				add(exact, hash(stackAt, true), handler, stackAt, true);
+				add(loose, hash(stackAt, false), handler, stackAt, false);
+			}
+		}
+
+		public boolean contains(ItemStack stack, IItemHandler handler) {
+			if(find(exact, hash(stack, true), handler, stack, true))
+				return true;
+
+			return !stack.getHasSubtypes() && stack.isItemStackDamageable() && stack.getMaxStackSize() == 1 
+					&& find(loose, hash(stack, false), handler, stack, false);
+		}
+
+		private static void add(Map<Integer, Map<IItemHandler, List<ItemStack>>> index, int hash, IItemHandler handler, ItemStack stack, boolean matchDamage) {
+			Map<IItemHandler, List<ItemStack>> handlers = index.computeIfAbsent(hash, (Integer h) -> new IdentityHashMap<>());
+			List<ItemStack> stacks = handlers.computeIfAbsent(handler, (IItemHandler h) -> new ArrayList<>(1));
+			for(ItemStack other : stacks)
+				if(matches(other, stack, matchDamage))
+					return;
+
+			stacks.add(stack.copy());
+		}
+
+		private static boolean find(Map<Integer, Map<IItemHandler, List<ItemStack>>> index, int hash, IItemHandler handler, ItemStack stack, boolean matchDamage) {
+			Map<IItemHandler, List<ItemStack>> handlers = index.get(hash);
+			if(handlers == null)
+				return false;
+
+			List<ItemStack> stacks = handlers.get(handler);
+			if(stacks == null)
+				return false;
+
+			for(ItemStack other : stacks)
+				if(matches(other, stack, matchDamage))
+					return true;
+
+			return false;
+		}
+
+		private static boolean matches(ItemStack stackAt, ItemStack stack, boolean matchDamage) {
+			return stack.getItem() == stackAt.getItem() 
+					&& (!matchDamage || stack.getItemDamage() == stackAt.getItemDamage()) 
+					&& ItemStack.areItemStackTagsEqual(stackAt, stack);
+		}
+
+		private static int hash(ItemStack stack, boolean withDamage) {
+			NBTTagCompound tag = stack.getTagCompound();
+			int hash = System.identityHashCode(stack.getItem());
+			if(withDamage)
+				hash = 31 * hash + stack.getItemDamage();
+			return 31 * hash + (tag == null ? 0 : tag.hashCode());
+		}
+
+	}
+
 	public static class PlayerInvWrapper extends InvWrapper {
 
 		public PlayerInvWrapper(IInventory inv) {
@@ -0,0 +1,214 @@
+package vazkii.quark.base.handler;
+
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.InventoryPlayer;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
+import net.minecraftforge.fml.common.gameevent.TickEvent.PlayerTickEvent;
+import vazkii.quark.api.module.FeatureEvent;
+import vazkii.quark.base.lib.LibMisc;
+import vazkii.quark.base.module.Feature;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Watches player inventories on behalf of features that care about particular stacks. Each
+ * slot's stack and tag are remembered by identity, and only slots where either changed are
+ * tested against the features' predicates.
+ */
+@Mod.EventBusSubscriber(modid = LibMisc.MOD_ID)
+public final class InventoryWatchHandler {
+
+	private static final List<Watcher> watchers = new ArrayList<>();
+	private static final Watcher[] NONE = new Watcher[0];
+
+	private static volatile Watcher[] activeWatchers = NONE;
+	private static volatile int generation;
+
+	// Kept apart so the client and server threads never share a map in singleplayer
+	private static final Map<EntityPlayer, PlayerWatch> clientWatches = new WeakHashMap<>();
+	private static final Map<EntityPlayer, PlayerWatch> serverWatches = new WeakHashMap<>();
+
+	private static long playerTicks, changedSlots;
+
+	static {
+		StatsHandler.register("inventory.watch", InventoryWatchHandler::getStats);
+	}
+
+	/**
+	 * Calls the handler whenever a stack matching the predicate shows up in a player's inventory,
+	 * or a stack already in there changes its tag to match. Call this from the feature's constructor.
+	 */
+	public static void onChanged(Feature feature, Predicate<ItemStack> matcher, BiConsumer<EntityPlayer, ItemStack> handler) {
+		register(new Watcher(feature, matcher, handler, false));
+	}
+
+	/**
+	 * Calls the handler every tick for every stack in a player's inventory that matches the
+	 * predicate. Stacks are only tested again when their slot changes.
+	 */
+	public static void onTick(Feature feature, Predicate<ItemStack> matcher, BiConsumer<EntityPlayer, ItemStack> handler) {
+		register(new Watcher(feature, matcher, handler, true));
+	}
+
+	/**
+	 * Has every slot of the player's inventory looked at again next tick, for handlers that
+	 * couldn't deal with a stack yet.
+	 */
+	public static void markDirty(EntityPlayer player) {
+		Map<EntityPlayer, PlayerWatch> watches = player.world.isRemote ? clientWatches : serverWatches;
+		watches.remove(player);
+	}
+
+	private static void register(Watcher watcher) {
+		synchronized(watchers) {
+			watcher.index = watchers.size();
+			watchers.add(watcher);
+			rebuild();
+		}
+	}
+
+	@SubscribeEvent
+	public static void onPlayerTick(PlayerTickEvent event) {
+		Watcher[] active = activeWatchers;
+		if(event.phase != Phase.END || active.length == 0)
+			return;
+
+		EntityPlayer player = event.player;
+		InventoryPlayer inventory = player.inventory;
+		int size = inventory.getSizeInventory();
+
+		Map<EntityPlayer, PlayerWatch> watches = player.world.isRemote ? clientWatches : serverWatches;
+		PlayerWatch watch = watches.get(player);
+		if(watch == null || watch.generation != generation || watch.stacks.length != size) {
+			watch = new PlayerWatch(size, generation);
+			watches.put(player, watch);
+		}
+
+		for(int i = 0; i < size; i++) {
+			ItemStack stack = inventory.getStackInSlot(i);
+			NBTTagCompound tag = stack.getTagCompound();
+			if(stack == watch.stacks[i] && tag == watch.tags[i])
+				continue;
+
+			changedSlots++;
+			for(Watcher watcher : active) {
+				boolean matches = !stack.isEmpty() && watcher.matcher.test(stack);
+				if(watcher.ticking)
+					watch.getTicking(watcher).set(i, matches);
+				else if(matches)
+					watcher.handler.accept(player, stack);
+			}
+
+			// Handlers usually update the stack they were given, no need to look at it again for that
+			watch.stacks[i] = inventory.getStackInSlot(i);
+			watch.tags[i] = watch.stacks[i].getTagCompound();
+		}
+
+		for(Watcher watcher : active)
+			if(watcher.ticking) {
+				BitSet slots = watch.getTicking(watcher);
+				for(int i = slots.nextSetBit(0); i >= 0; i = slots.nextSetBit(i + 1))
+					watcher.handler.accept(player, inventory.getStackInSlot(i));
+			}
+
+		playerTicks++;
+	}
+
+	@SubscribeEvent
+	public static void onFeatureEnabled(FeatureEvent.PostEnable event) {
+		setActive(event.getFeature(), true);
+	}
+
+	@SubscribeEvent
+	public static void onFeatureDisabled(FeatureEvent.Disabled event) {
+		setActive(event.getFeature(), false);
+	}
+
+	private static void setActive(Object feature, boolean active) {
+		synchronized(watchers) {
+			boolean changed = false;
+			for(Watcher watcher : watchers)
+				if(watcher.feature == feature && watcher.active != active) {
+					watcher.active = active;
+					changed = true;
+				}
+
+			if(changed)
+				rebuild();
+		}
+	}
+
+	// Bumping the generation has every inventory looked at from scratch, so stacks that were
+	// already there when a feature got enabled still get handled
+	private static void rebuild() {
+		List<Watcher> active = new ArrayList<>();
+		for(Watcher watcher : watchers)
+			if(watcher.active)
+				active.add(watcher);
+
+		activeWatchers = active.toArray(NONE);
+		generation++;
+	}
+
+	private static String getStats() {
+		return String.format("%d watchers, %d player ticks, %d changed slots (%.2f per player tick)", activeWatchers.length, playerTicks, changedSlots, playerTicks == 0 ? 0 : (double) changedSlots / playerTicks);
+	}
+
+	private static class Watcher {
+
+		private final Feature feature;
+		private final Predicate<ItemStack> matcher;
+		private final BiConsumer<EntityPlayer, ItemStack> handler;
+		private final boolean ticking;
+		private int index;
+		private boolean active;
+
+		private Watcher(Feature feature, Predicate<ItemStack> matcher, BiConsumer<EntityPlayer, ItemStack> handler, boolean ticking) {
+			this.feature = feature;
+			this.matcher = matcher;
+			this.handler = handler;
+			this.ticking = ticking;
+		}
+
+	}
+
+	private static class PlayerWatch {
+
+		private final ItemStack[] stacks;
+		private final NBTTagCompound[] tags;
+		private final int generation;
+		private BitSet[] ticking = new BitSet[0];
+
+		private PlayerWatch(int size, int generation) {
+			stacks = new ItemStack[size];
+			tags = new NBTTagCompound[size];
+			this.generation = generation;
+		}
+
+		private BitSet getTicking(Watcher watcher) {
+			if(watcher.index >= ticking.length) {
+				BitSet[] grown = new BitSet[watcher.index + 1];
+				System.arraycopy(ticking, 0, grown, 0, ticking.length);
+				ticking = grown;
+			}
+
+			BitSet slots = ticking[watcher.index];
+			if(slots == null)
+				slots = ticking[watcher.index] = new BitSet(stacks.length);
+
+			return slots;
+		}
+
+	}
+
+}
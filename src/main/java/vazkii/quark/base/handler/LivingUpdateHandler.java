@@ -0,0 +1,136 @@
+package vazkii.quark.base.handler;
+
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraftforge.event.entity.living.LivingEvent.LivingUpdateEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import vazkii.quark.api.module.FeatureEvent;
+import vazkii.quark.base.lib.LibMisc;
+import vazkii.quark.base.module.Feature;
+import vazkii.quark.base.module.GlobalConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Single LivingUpdateEvent subscriber for all features. Each feature declares which entity
+ * classes it cares about, and every entity class gets its own precomputed array of handlers,
+ * so most entities are done with after one map lookup instead of a dozen instanceof checks.
+ */
+@Mod.EventBusSubscriber(modid = LibMisc.MOD_ID)
+public final class LivingUpdateHandler {
+
+	private static final List<Listener> listeners = new ArrayList<>();
+	private static final Listener[] NONE = new Listener[0];
+
+	// Both logical sides dispatch through this in singleplayer, and it's dropped whenever a feature is toggled
+	private static volatile Map<Class<?>, Listener[]> dispatchCache = new ConcurrentHashMap<>();
+
+	static {
+		StatsHandler.register("entities.tick", LivingUpdateHandler::getStats);
+	}
+
+	/**
+	 * Calls the handler every tick for each living entity that is an instance of the given class,
+	 * for as long as the feature is enabled. Call this from the feature's constructor.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T extends EntityLivingBase> void register(Feature feature, Class<T> clazz, Consumer<T> handler) {
+		synchronized(listeners) {
+			listeners.add(new Listener(feature, clazz, (Consumer<EntityLivingBase>) handler));
+			dispatchCache = new ConcurrentHashMap<>();
+		}
+	}
+
+	@SubscribeEvent
+	public static void onLivingUpdate(LivingUpdateEvent event) {
+		EntityLivingBase entity = event.getEntityLiving();
+		Listener[] targets = dispatchCache.computeIfAbsent(entity.getClass(), LivingUpdateHandler::collect);
+		if(targets.length == 0)
+			return;
+
+		if(GlobalConfig.profileEntityTicks) {
+			for(Listener listener : targets) {
+				long start = System.nanoTime();
+				listener.handler.accept(entity);
+				listener.calls.incrementAndGet();
+				listener.nanos.addAndGet(System.nanoTime() - start);
+			}
+		} else for(Listener listener : targets)
+			listener.handler.accept(entity);
+	}
+
+	@SubscribeEvent
+	public static void onFeatureEnabled(FeatureEvent.PostEnable event) {
+		setActive(event.getFeature(), true);
+	}
+
+	@SubscribeEvent
+	public static void onFeatureDisabled(FeatureEvent.Disabled event) {
+		setActive(event.getFeature(), false);
+	}
+
+	private static void setActive(Object feature, boolean active) {
+		synchronized(listeners) {
+			boolean changed = false;
+			for(Listener listener : listeners)
+				if(listener.feature == feature && listener.active != active) {
+					listener.active = active;
+					changed = true;
+				}
+
+			if(changed)
+				dispatchCache = new ConcurrentHashMap<>();
+		}
+	}
+
+	private static Listener[] collect(Class<?> entityClass) {
+		List<Listener> matching = new ArrayList<>();
+		synchronized(listeners) {
+			for(Listener listener : listeners)
+				if(listener.active && listener.clazz.isAssignableFrom(entityClass))
+					matching.add(listener);
+		}
+
+		return matching.isEmpty() ? NONE : matching.toArray(NONE);
+	}
+
+	private static String getStats() {
+		StringBuilder builder = new StringBuilder();
+		builder.append(dispatchCache.size()).append(" entity classes cached");
+		if(!GlobalConfig.profileEntityTicks)
+			return builder.append(", enable \"Profile Entity Ticks\" for per-feature times").toString();
+
+		synchronized(listeners) {
+			for(Listener listener : listeners) {
+				long calls = listener.calls.get();
+				if(calls > 0)
+					builder.append(String.format(", %s (%s): %d calls, %.3f ms", listener.feature.configName, listener.clazz.getSimpleName(), calls, listener.nanos.get() / 1e6));
+			}
+		}
+
+		return builder.toString();
+	}
+
+	private static class Listener {
+
+		private final Feature feature;
+		private final Class<?> clazz;
+		private final Consumer<EntityLivingBase> handler;
+		private final AtomicLong calls = new AtomicLong();
+		private final AtomicLong nanos = new AtomicLong();
+		private boolean active;
+
+		private Listener(Feature feature, Class<?> clazz, Consumer<EntityLivingBase> handler) {
+			this.feature = feature;
+			this.clazz = clazz;
+			this.handler = handler;
+		}
+
+	}
+
+}
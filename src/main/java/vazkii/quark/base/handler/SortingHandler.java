@@ -12,6 +12,7 @@ import net.minecraft.inventory.IInventory;
 import net.minecraft.inventory.Slot;
 import net.minecraft.item.*;
 import net.minecraft.item.Item.ToolMaterial;
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.EnumActionResult;
 import net.minecraftforge.fml.common.ObfuscationReflectionHelper;
 import net.minecraftforge.items.IItemHandler;
@@ -24,40 +25,54 @@ import vazkii.quark.management.feature.InventorySorting;
 import vazkii.quark.oddities.inventory.ContainerBackpack;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
 public final class SortingHandler {
 
 	private static final Comparator<ItemStack> FALLBACK_COMPARATOR = jointComparator(
 			Comparator.comparingInt((ItemStack s) -> Item.getIdFromItem(s.getItem())),
-			SortingHandler::damageCompare,
+			(ItemStack s1, ItemStack s2) -> s1.getItemDamage() - s2.getItemDamage(),
 			(ItemStack s1, ItemStack s2) -> s2.getCount() - s1.getCount(),
 			(ItemStack s1, ItemStack s2) -> s2.getDisplayName().compareTo(s1.getDisplayName()),
 			(ItemStack s1, ItemStack s2) -> s2.hashCode() - s1.hashCode());
 
-	private static final Comparator<ItemStack> FOOD_COMPARATOR = jointComparator(
+	private static final Comparator<SortKey> FALLBACK_KEY_COMPARATOR = keyComparator(
+			Comparator.comparingInt((SortKey k) -> k.itemId),
+			SortingHandler::damageCompare,
+			(SortKey k1, SortKey k2) -> k2.count - k1.count,
+			(SortKey k1, SortKey k2) -> k2.getDisplayName().compareTo(k1.getDisplayName()),
+			(SortKey k1, SortKey k2) -> k2.stack.hashCode() - k1.stack.hashCode());
+
+	private static final Comparator<SortKey> FOOD_COMPARATOR = keyComparator(
 			SortingHandler::foodHealCompare,
 			SortingHandler::foodSaturationCompare);
 
-	private static final Comparator<ItemStack> TOOL_COMPARATOR = jointComparator(
+	private static final Comparator<SortKey> TOOL_COMPARATOR = keyComparator(
 			SortingHandler::toolPowerCompare,
 			SortingHandler::enchantmentCompare,
 			SortingHandler::damageCompare);
 
-	private static final Comparator<ItemStack> SWORD_COMPARATOR = jointComparator(
+	private static final Comparator<SortKey> SWORD_COMPARATOR = keyComparator(
 			SortingHandler::swordPowerCompare,
 			SortingHandler::enchantmentCompare,
 			SortingHandler::damageCompare);
 
-	private static final Comparator<ItemStack> ARMOR_COMPARATOR = jointComparator(
+	private static final Comparator<SortKey> ARMOR_COMPARATOR = keyComparator(
 			SortingHandler::armorSlotAndToughnessCompare,
 			SortingHandler::enchantmentCompare,
 			SortingHandler::damageCompare);
 
-	private static final Comparator<ItemStack> BOW_COMPARATOR = jointComparator(
+	private static final Comparator<SortKey> BOW_COMPARATOR = keyComparator(
 			SortingHandler::enchantmentCompare,
 			SortingHandler::damageCompare);
 
+	private static final Map<Item, ItemType> itemTypes = new ConcurrentHashMap<>();
+	private static final Map<Item, Float> toolEfficiencies = new ConcurrentHashMap<>();
+
+	private static long sorts, sortedSlots, writtenSlots, sortNanos, maxSortNanos, largestSortNanos;
+	private static int largestSort;
+
 	public static void sortInventory(EntityPlayer player, boolean forcePlayer) {
 		if (!ModuleLoader.isFeatureEnabled(InventorySorting.class))
 			return;
@@ -101,6 +116,7 @@ public final class SortingHandler {
 	}
 
 	public static void sortInventory(IItemHandler handler, int iStart, int iEnd) {
+		long start = System.nanoTime();
 		List<ItemStack> stacks = new ArrayList<>();
 		List<ItemStack> restore = new ArrayList<>();
 
@@ -116,100 +132,165 @@ public final class SortingHandler {
 
 		if (setInventory(handler, stacks, iStart, iEnd) == EnumActionResult.FAIL)
 			setInventory(handler, restore, iStart, iEnd);
+
+		recordSort(iEnd - iStart, System.nanoTime() - start);
+	}
+
+	private static synchronized void recordSort(int slots, long nanos) {
+		sorts++;
+		sortedSlots += slots;
+		sortNanos += nanos;
+		maxSortNanos = Math.max(maxSortNanos, nanos);
+		if (slots > largestSort) {
+			largestSort = slots;
+			largestSortNanos = nanos;
+		}
+	}
+
+	private static synchronized void recordWrites(int slots) {
+		writtenSlots += slots;
+	}
+
+	public static synchronized String getStats() {
+		return String.format("%d sorts, %d slots, %d slots written (%.1f per sort), %.3f ms average, %.3f ms worst, largest %d slots in %.3f ms",
+				sorts, sortedSlots, writtenSlots, sorts == 0 ? 0 : (double) writtenSlots / sorts,
+				sorts == 0 ? 0 : sortNanos / 1e6 / sorts, maxSortNanos / 1e6, largestSort, largestSortNanos / 1e6);
 	}
 
 	private static EnumActionResult setInventory(IItemHandler inventory, List<ItemStack> stacks, int iStart, int iEnd) {
+		// Only slots whose contents change get written, every write can mean a change check and a packet
+		boolean[] changed = new boolean[iEnd - iStart];
 		for (int i = iStart; i < iEnd; i++) {
 			int j = i - iStart;
 			ItemStack stack = j >= stacks.size() ? ItemStack.EMPTY : stacks.get(j);
 
+			if (ItemStack.areItemStacksEqual(inventory.getStackInSlot(i), stack))
+				continue;
+
 			if (!stack.isEmpty() && !inventory.isItemValid(i, stack))
 				return EnumActionResult.PASS;
+
+			changed[j] = true;
 		}
 
+		int written = 0;
 		for (int i = iStart; i < iEnd; i++) {
 			int j = i - iStart;
+			if (!changed[j])
+				continue;
+
 			ItemStack stack = j >= stacks.size() ? ItemStack.EMPTY : stacks.get(j);
 
+			written++;
 			inventory.extractItem(i, 64, false);
 			if (!stack.isEmpty())
-				if (!inventory.insertItem(i, stack, false).isEmpty())
+				if (!inventory.insertItem(i, stack, false).isEmpty()) {
+					recordWrites(written);
 					return EnumActionResult.FAIL;
+				}
 		}
 
+		recordWrites(written);
 		return EnumActionResult.SUCCESS;
 	}
 
 	private static void mergeStacks(List<ItemStack> list) {
-		for (int i = 0; i < list.size(); i++) {
-			ItemStack set = mergeStackWithOthers(list, i);
-			list.set(i, set);
-		}
+		// Stacks that still have room, bucketed by item, meta and tag so each stack only meets its own kind
+		Map<Integer, List<ItemStack>> openStacks = new HashMap<>();
 
-		list.removeIf((ItemStack stack) -> stack.isEmpty() || stack.getCount() == 0);
-	}
+		for (ItemStack stack : list) {
+			if (stack.isEmpty() || stack.getCount() >= stack.getMaxStackSize())
+				continue;
 
-	private static ItemStack mergeStackWithOthers(List<ItemStack> list, int index) {
-		ItemStack stack = list.get(index);
-		if (stack.isEmpty())
-			return stack;
+			int hash = mergeHash(stack);
+			List<ItemStack> bucket = openStacks.get(hash);
+			if (bucket == null) {
+				bucket = new ArrayList<>(1);
+				openStacks.put(hash, bucket);
+			}
 
-		for (int i = 0; i < list.size(); i++) {
-			if (i == index)
-				continue;
+			ItemStack open = null;
+			int openIndex = 0;
+			for (; openIndex < bucket.size(); openIndex++) {
+				ItemStack stackAt = bucket.get(openIndex);
+				if (ItemStack.areItemsEqual(stack, stackAt) && ItemStack.areItemStackTagsEqual(stack, stackAt)) {
+					open = stackAt;
+					break;
+				}
+			}
 
-			ItemStack stackAt = list.get(i);
-			if (stackAt.isEmpty())
+			if (open == null) {
+				bucket.add(stack);
 				continue;
+			}
 
-			if (stackAt.getCount() < stackAt.getMaxStackSize() && ItemStack.areItemsEqual(stack, stackAt) && ItemStack.areItemStackTagsEqual(stack, stackAt)) {
-				int setSize = stackAt.getCount() + stack.getCount();
-				int carryover = Math.max(0, setSize - stackAt.getMaxStackSize());
-				stackAt.setCount(carryover);
-				stack.setCount(setSize - carryover);
+			int moved = Math.min(stack.getCount(), open.getMaxStackSize() - open.getCount());
+			open.grow(moved);
+			stack.shrink(moved);
 
-				if (stack.getCount() == stack.getMaxStackSize())
-					return stack;
+			if (open.getCount() >= open.getMaxStackSize()) {
+				if (stack.isEmpty())
+					bucket.remove(openIndex);
+				else bucket.set(openIndex, stack);
 			}
 		}
 
-		return stack;
+		list.removeIf((ItemStack stack) -> stack.isEmpty() || stack.getCount() == 0);
+	}
+
+	private static int mergeHash(ItemStack stack) {
+		NBTTagCompound tag = stack.getTagCompound();
+		int hash = System.identityHashCode(stack.getItem());
+		hash = 31 * hash + stack.getItemDamage();
+		return 31 * hash + (tag == null ? 0 : tag.hashCode());
 	}
 
 	public static void sortStackList(List<ItemStack> list) {
-		list.sort(SortingHandler::stackCompare);
+		// Everything the comparators need is worked out once per stack instead of once per comparison
+		SortKey[] keys = new SortKey[list.size()];
+		for (int i = 0; i < keys.length; i++)
+			keys[i] = new SortKey(list.get(i));
+
+		Arrays.sort(keys, SortingHandler::keyCompare);
+
+		for (int i = 0; i < keys.length; i++)
+			list.set(i, keys[i].stack);
 	}
 
-	private static int stackCompare(ItemStack stack1, ItemStack stack2) {
-		if (stack1 == stack2)
+	private static int keyCompare(SortKey key1, SortKey key2) {
+		if (key1 == key2 || key1.stack == key2.stack)
 			return 0;
-		if (stack1.isEmpty())
+		if (key1.stack.isEmpty())
 			return -1;
-		if (stack2.isEmpty())
+		if (key2.stack.isEmpty())
 			return 1;
 
-		if (ICustomSorting.hasSorting(stack1) && ICustomSorting.hasSorting(stack2)) {
-			ICustomSorting sort1 = ICustomSorting.getSorting(stack1);
-			ICustomSorting sort2 = ICustomSorting.getSorting(stack2);
-			if (sort1.getSortingCategory().equals(sort2.getSortingCategory()))
-				return sort1.getItemComparator().compare(stack1, stack2);
+		if (key1.customSorting != null && key2.customSorting != null) {
+			if (key1.customSorting.getSortingCategory().equals(key2.customSorting.getSortingCategory()))
+				return key1.customSorting.getItemComparator().compare(key1.stack, key2.stack);
 		}
 
-		ItemType type1 = getType(stack1);
-		ItemType type2 = getType(stack2);
-
-		if (type1 == type2)
-			return type1.comparator.compare(stack1, stack2);
+		if (key1.type == key2.type)
+			return key1.type.comparator.compare(key1, key2);
 
-		return type1.ordinal() - type2.ordinal();
+		return key1.type.ordinal() - key2.type.ordinal();
 	}
 
 	private static ItemType getType(ItemStack stack) {
-		for (ItemType type : ItemType.class.getEnumConstants())
-			if (type.fitsInType(stack))
-				return type;
+		return itemTypes.computeIfAbsent(stack.getItem(), (Item item) -> {
+			for (ItemType type : ItemType.class.getEnumConstants())
+				if (type.fitsInType(stack))
+					return type;
 
-		throw new RuntimeException("Having an ItemStack that doesn't fit in any type is impossible.");
+			throw new RuntimeException("Having an ItemStack that doesn't fit in any type is impossible.");
+		});
+	}
+
+	private static float getToolEfficiency(Item item) {
+		return toolEfficiencies.computeIfAbsent(item, (Item tool) -> {
+			ToolMaterial mat = ObfuscationReflectionHelper.getPrivateValue(ItemTool.class, (ItemTool) tool, LibObfuscation.TOOL_MATERIAL);
+			return mat.getEfficiency();
+		});
 	}
 
 	private static Predicate<ItemStack> classPred(Class<? extends Item> clazz) {
@@ -252,6 +333,21 @@ public final class SortingHandler {
 		}, FALLBACK_COMPARATOR);
 	}
 
+	@SafeVarargs
+	private static Comparator<SortKey> keyComparator(Comparator<SortKey>... comparators) {
+		// Null while the fallback itself is being built
+		Comparator<SortKey> fallback = FALLBACK_KEY_COMPARATOR;
+		return (SortKey k1, SortKey k2) -> {
+			for (Comparator<SortKey> comparator : comparators) {
+				int compare = comparator.compare(k1, k2);
+				if (compare != 0)
+					return compare;
+			}
+
+			return fallback == null ? 0 : fallback.compare(k1, k2);
+		};
+	}
+
 	private static Comparator<ItemStack> jointComparatorFallback(Comparator<ItemStack> comparator, Comparator<ItemStack> fallback) {
 		return (ItemStack s1, ItemStack s2) -> {
 			int compare = comparator.compare(s1, s2);
@@ -262,21 +358,17 @@ public final class SortingHandler {
 		};
 	}
 
-	private static Comparator<ItemStack> listOrderComparator(List<Item> list) {
-		return (ItemStack stack1, ItemStack stack2) -> {
-			Item i1 = stack1.getItem();
-			Item i2 = stack2.getItem();
-			if (list.contains(i1)) {
-				if (list.contains(i2))
-					return list.indexOf(i1) - list.indexOf(i2);
-				return 1;
-			}
+	private static int listOrderCompare(SortKey key1, SortKey key2) {
+		if (key1.listIndex != -1) {
+			if (key2.listIndex != -1)
+				return key1.listIndex - key2.listIndex;
+			return 1;
+		}
 
-			if (list.contains(i2))
-				return -1;
+		if (key2.listIndex != -1)
+			return -1;
 
-			return 0;
-		};
+		return 0;
 	}
 
 	private static List<Item> list(Object... items) {
@@ -299,16 +391,16 @@ public final class SortingHandler {
 		return itemList;
 	}
 
-	private static int foodHealCompare(ItemStack stack1, ItemStack stack2) {
-		return ((ItemFood) stack2.getItem()).getHealAmount(stack2) - ((ItemFood) stack1.getItem()).getHealAmount(stack1);
+	private static int foodHealCompare(SortKey key1, SortKey key2) {
+		return key2.foodHeal - key1.foodHeal;
 	}
 
-	private static int foodSaturationCompare(ItemStack stack1, ItemStack stack2) {
-		return (int) (((ItemFood) stack2.getItem()).getSaturationModifier(stack2) * 100 - ((ItemFood) stack1.getItem()).getSaturationModifier(stack1) * 100);
+	private static int foodSaturationCompare(SortKey key1, SortKey key2) {
+		return (int) (key2.foodSaturation * 100 - key1.foodSaturation * 100);
 	}
 
-	private static int enchantmentCompare(ItemStack stack1, ItemStack stack2) {
-		return enchantmentPower(stack2) - enchantmentPower(stack1);
+	private static int enchantmentCompare(SortKey key1, SortKey key2) {
+		return key2.enchantmentPower - key1.enchantmentPower;
 	}
 
 	private static int enchantmentPower(ItemStack stack) {
@@ -324,31 +416,76 @@ public final class SortingHandler {
 		return total;
 	}
 
-	private static int toolPowerCompare(ItemStack stack1, ItemStack stack2) {
-		ToolMaterial mat1 = ObfuscationReflectionHelper.getPrivateValue(ItemTool.class, (ItemTool) stack1.getItem(), LibObfuscation.TOOL_MATERIAL);
-		ToolMaterial mat2 = ObfuscationReflectionHelper.getPrivateValue(ItemTool.class, (ItemTool) stack2.getItem(), LibObfuscation.TOOL_MATERIAL);
-		return (int) (mat2.getEfficiency() * 100 - mat1.getEfficiency() * 100);
+	private static int toolPowerCompare(SortKey key1, SortKey key2) {
+		return (int) (key2.toolPower * 100 - key1.toolPower * 100);
 	}
 
-	private static int swordPowerCompare(ItemStack stack1, ItemStack stack2) {
-		return (int) (((ItemSword) stack2.getItem()).getAttackDamage() * 100 - ((ItemSword) stack1.getItem()).getAttackDamage() * 100);
+	private static int swordPowerCompare(SortKey key1, SortKey key2) {
+		return (int) (key2.toolPower * 100 - key1.toolPower * 100);
 	}
 
-	private static int armorSlotAndToughnessCompare(ItemStack stack1, ItemStack stack2) {
-		ItemArmor armor1 = (ItemArmor) stack1.getItem();
-		ItemArmor armor2 = (ItemArmor) stack2.getItem();
-
-		EntityEquipmentSlot slot1 = armor1.armorType;
-		EntityEquipmentSlot slot2 = armor2.armorType;
+	private static int armorSlotAndToughnessCompare(SortKey key1, SortKey key2) {
+		// Pieces for the same slot tie here, and fall through to enchantments and damage
+		if (key1.armorSlot == key2.armorSlot)
+			return 0;
 
-		if (slot1 == slot2)
-			return armor2.getArmorMaterial().getDamageReductionAmount(slot2) - armor2.getArmorMaterial().getDamageReductionAmount(slot1);
+		return key2.armorSlot.getIndex() - key1.armorSlot.getIndex();
+	}
 
-		return slot2.getIndex() - slot1.getIndex();
+	private static int damageCompare(SortKey key1, SortKey key2) {
+		return key1.damage - key2.damage;
 	}
 
-	private static int damageCompare(ItemStack stack1, ItemStack stack2) {
-		return stack1.getItemDamage() - stack2.getItemDamage();
+	private static final class SortKey {
+
+		final ItemStack stack;
+		final ICustomSorting customSorting;
+		final ItemType type;
+		final int itemId;
+		final int damage;
+		final int count;
+		final int enchantmentPower;
+		final int listIndex;
+
+		int foodHeal;
+		float foodSaturation;
+		float toolPower;
+		EntityEquipmentSlot armorSlot;
+
+		private String displayName;
+
+		SortKey(ItemStack stack) {
+			this.stack = stack;
+			Item item = stack.getItem();
+
+			customSorting = !stack.isEmpty() && ICustomSorting.hasSorting(stack) ? ICustomSorting.getSorting(stack) : null;
+			type = stack.isEmpty() ? null : getType(stack);
+			itemId = Item.getIdFromItem(item);
+			damage = stack.getItemDamage();
+			count = stack.getCount();
+			listIndex = type == null || type.list == null ? -1 : type.list.indexOf(item);
+
+			if (type != null && (type.comparator == TOOL_COMPARATOR || type.comparator == SWORD_COMPARATOR || type.comparator == ARMOR_COMPARATOR || type.comparator == BOW_COMPARATOR))
+				enchantmentPower = enchantmentPower(stack);
+			else enchantmentPower = 0;
+
+			if (type == ItemType.FOOD) {
+				foodHeal = ((ItemFood) item).getHealAmount(stack);
+				foodSaturation = ((ItemFood) item).getSaturationModifier(stack);
+			} else if (type == ItemType.TOOL_SWORD)
+				toolPower = ((ItemSword) item).getAttackDamage();
+			else if (type != null && type.comparator == TOOL_COMPARATOR)
+				toolPower = getToolEfficiency(item);
+			else if (type == ItemType.ARMOR)
+				armorSlot = ((ItemArmor) item).armorType;
+		}
+
+		String getDisplayName() {
+			if (displayName == null)
+				displayName = stack.getDisplayName();
+			return displayName;
+		}
+
 	}
 
 	private enum ItemType {
@@ -372,18 +509,19 @@ public final class SortingHandler {
 		BLOCK(classPred(ItemBlock.class));
 
 		private Predicate<ItemStack> pred;
-		private Comparator<ItemStack> comparator;
+		private Comparator<SortKey> comparator;
+		private List<Item> list;
 
-		@SafeVarargs
-		ItemType(List<Item> list, Comparator<ItemStack>... comparators) {
-			this(itemPred(list), jointComparator(listOrderComparator(list), comparators));
+		ItemType(List<Item> list) {
+			this(itemPred(list), keyComparator(SortingHandler::listOrderCompare));
+			this.list = list;
 		}
 
 		ItemType(Predicate<ItemStack> pred) {
-			this(pred, FALLBACK_COMPARATOR);
+			this(pred, FALLBACK_KEY_COMPARATOR);
 		}
 
-		ItemType(Predicate<ItemStack> pred, Comparator<ItemStack> comparator) {
+		ItemType(Predicate<ItemStack> pred, Comparator<SortKey> comparator) {
 			this.pred = pred;
 			this.comparator = comparator;
 		}
@@ -0,0 +1,46 @@
+package vazkii.quark.base.handler;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public final class StatsHandler {
+
+	private static final Map<String, Supplier<String>> stats = new LinkedHashMap<>();
+	
+	static {
+		register("jvm.gc", StatsHandler::getGarbageCollectionStats);
+	}
+
+	public static void register(String name, Supplier<String> stat) {
+		synchronized(stats) {
+			stats.put(name, stat);
+		}
+	}
+	
+	public static Map<String, String> collect(String prefix) {
+		Map<String, String> values = new LinkedHashMap<>();
+		synchronized(stats) {
+			for(Map.Entry<String, Supplier<String>> entry : stats.entrySet())
+				if(prefix == null || entry.getKey().startsWith(prefix))
+					values.put(entry.getKey(), entry.getValue().get());
+		}
+		
+		return values;
+	}
+	
+	// Take this before and after a pre-generation run to compare GC pressure
+	private static String getGarbageCollectionStats() {
+		long count = 0, time = 0;
+		for(GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, bean.getCollectionCount());
+			time += Math.max(0, bean.getCollectionTime());
+		}
+		
+		Runtime runtime = Runtime.getRuntime();
+		return String.format("%d collections, %d ms total, %d MB heap in use", count, time, (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+	}
+	
+}
@@ -11,6 +11,8 @@ public final class GlobalConfig {
 	public static boolean enableVariants;
 	public static boolean enableQButton;
 	public static boolean qButtonOnRight;
+	public static int worldGenSourceCacheSize;
+	public static boolean profileEntityTicks;
 	
 	public static Property qButtonProp;
 
@@ -43,6 +45,11 @@ public final class GlobalConfig {
 				+ "this is helpful to reduce the load, if you intend on running a really large modpack.\n"
 				+ "Note: Blocks that require stairs and/or slabs for their recipes (such as Soul Sandstone or Midori) won't be affected.", true);
 		
+		worldGenSourceCacheSize = ConfigHelper.loadPropInt("World Generation Source Cache Size", category,
+				"How many chunks' worth of feature sources (stone clusters, underground biomes) each generator keeps cached per world.\n"
+				+ "Each chunk's sources are shared with all the chunks around it, so this mostly matters for large pre-generation runs.\n"
+				+ "Use /quarkstats worldgen to see the hit rate and memory used. Set to 0 to disable the cache.", 1024);
+		
 		ConfigHelper.needsRestart = ConfigHelper.allNeedRestart = false;
 		
 		enableQButton = ConfigHelper.loadPropBool("Enable q Button", category, 
@@ -54,6 +61,10 @@ public final class GlobalConfig {
 				"Set this to true to move the q button to the right of the buttons, instead\n"
 				+ "of to the left as it is by default.", false);
 		
+		profileEntityTicks = ConfigHelper.loadPropBool("Profile Entity Ticks", category,
+				"Set this to true to time how long each feature spends ticking living entities.\n"
+				+ "Use /quarkstats entities to see the results. This adds a small overhead to every call, so leave it off normally.", false);
+		
 	}
 	
 	public static void changeConfig(String moduleName, String category, String key, String value, boolean saveToFile) {
@@ -23,6 +23,7 @@ import vazkii.quark.base.network.message.MessageFavoriteItem;
 import vazkii.quark.base.network.message.MessageHandleBackpack;
 import vazkii.quark.base.network.message.MessageLinkItem;
 import vazkii.quark.base.network.message.MessageMatrixEnchanterOperation;
+import vazkii.quark.base.network.message.MessagePipeItemEnter;
 import vazkii.quark.base.network.message.MessageRequestEmote;
 import vazkii.quark.base.network.message.MessageRequestPassengerChest;
 import vazkii.quark.base.network.message.MessageRestock;
@@ -54,6 +55,7 @@ public class MessageRegister {
 		NetworkHandler.register(MessageHandleBackpack.class, Side.SERVER);
 		NetworkHandler.register(MessageRequestEmote.class, Side.SERVER);
 		NetworkHandler.register(MessageMatrixEnchanterOperation.class, Side.SERVER);
+		NetworkHandler.register(MessagePipeItemEnter.class, Side.CLIENT);
 
 		NetworkMessage.mapHandler(LockProfile.class, LockProfile::readProfile, LockProfile::writeProfile);
 	}
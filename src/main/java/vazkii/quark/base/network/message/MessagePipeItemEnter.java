@@ -0,0 +1,32 @@
+package vazkii.quark.base.network.message;
+
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import vazkii.arl.network.NetworkMessage;
+import vazkii.arl.util.ClientTicker;
+import vazkii.quark.base.Quark;
+
+public class MessagePipeItemEnter extends NetworkMessage<MessagePipeItemEnter> {
+
+	public BlockPos pos;
+	public NBTTagCompound item;
+	public int time;
+
+	public MessagePipeItemEnter() { }
+
+	public MessagePipeItemEnter(BlockPos pos, NBTTagCompound item, int time) {
+		this.pos = pos;
+		this.item = item;
+		this.time = time;
+	}
+
+	@Override
+	public IMessage handleMessage(MessageContext context) {
+		ClientTicker.addAction(() -> Quark.proxy.addPipeItem(pos, item, time));
+		
+		return null;
+	}
+
+}
@@ -14,6 +14,9 @@ import net.minecraft.client.Minecraft;
 import net.minecraft.client.entity.AbstractClientPlayer;
 import net.minecraft.client.resources.IResourcePack;
 import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.fml.common.ObfuscationReflectionHelper;
@@ -25,6 +28,8 @@ import vazkii.quark.base.client.ResourceProxy;
 import vazkii.quark.base.client.gui.config.ConfigEvents;
 import vazkii.quark.base.lib.LibObfuscation;
 import vazkii.quark.base.module.ModuleLoader;
+import vazkii.quark.oddities.tile.TilePipe;
+import vazkii.quark.oddities.tile.TilePipe.PipeItem;
 import vazkii.quark.vanity.client.emotes.EmoteHandler;
 import vazkii.quark.vanity.feature.EmoteSystem;
 
@@ -75,5 +80,16 @@ public class ClientProxy extends CommonProxy {
 	public void addResourceOverride(String path, String file) {
 		resourceProxy.addResource(path, file);
 	}
+	
+	@Override
+	public void addPipeItem(BlockPos pos, NBTTagCompound item, int sentAt) {
+		World world = Minecraft.getMinecraft().world;
+		if(world == null || !world.isBlockLoaded(pos))
+			return;
+		
+		TileEntity tile = world.getTileEntity(pos);
+		if(tile instanceof TilePipe)
+			((TilePipe) tile).receiveItem(PipeItem.readFromNBT(item), sentAt);
+	}
 
 }
@@ -10,6 +10,8 @@
  */
 package vazkii.quark.base.proxy;
 
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.math.BlockPos;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
@@ -18,6 +20,7 @@ import net.minecraftforge.fml.common.network.NetworkRegistry;
 import vazkii.quark.base.Quark;
 import vazkii.quark.base.capability.CapabilityHandler;
 import vazkii.quark.base.command.CommandConfig;
+import vazkii.quark.base.command.CommandStats;
 import vazkii.quark.base.module.GlobalConfig;
 import vazkii.quark.base.module.ModuleLoader;
 import vazkii.quark.base.network.GuiHandler;
@@ -53,6 +56,8 @@ public class CommonProxy {
 		
 		if(GlobalConfig.enableConfigCommand)
 			event.registerServerCommand(new CommandConfig());
+		
+		event.registerServerCommand(new CommandStats());
 	}
 
 	public void doEmote(String playerName, String emoteName) {
@@ -62,6 +67,10 @@ public class CommonProxy {
 	public void addResourceOverride(String path, String file) {
 		// proxy override
 	}
+	
+	public void addPipeItem(BlockPos pos, NBTTagCompound item, int sentAt) {
+		// proxy override
+	}
 
 	
 }
@@ -10,12 +10,15 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.IBlockAccess;
 import net.minecraft.world.World;
 import net.minecraftforge.common.ForgeModContainer;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
 import net.minecraftforge.fml.common.gameevent.TickEvent.RenderTickEvent;
 import vazkii.quark.base.module.Feature;
 import vazkii.quark.experimental.lighting.BlockTinter;
 import vazkii.quark.experimental.lighting.ColoredLightSystem;
+import vazkii.quark.experimental.lighting.ColoredLightWorldListener;
 import vazkii.quark.experimental.lighting.IColoredLightSource;
 
 public class ColoredLights extends Feature {
@@ -72,6 +75,27 @@ public class ColoredLights extends Feature {
 		
 		ColoredLightSystem.tick(mc);
 	}
+	
+	@SubscribeEvent
+	public void onWorldLoad(WorldEvent.Load event) {
+		World world = event.getWorld();
+		if(world.isRemote)
+			world.addEventListener(new ColoredLightWorldListener());
+	}
+	
+	@SubscribeEvent
+	public void onChunkLoad(ChunkEvent.Load event) {
+		World world = event.getWorld();
+		if(world.isRemote)
+			ColoredLightSystem.onChunkLoaded(world, event.getChunk().x, event.getChunk().z);
+	}
+	
+	@SubscribeEvent
+	public void onChunkUnload(ChunkEvent.Unload event) {
+		World world = event.getWorld();
+		if(world.isRemote)
+			ColoredLightSystem.onChunkUnloaded(world, event.getChunk().x, event.getChunk().z);
+	}
 
 	@Override
 	public boolean hasSubscriptions() {
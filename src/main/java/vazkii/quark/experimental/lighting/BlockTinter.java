@@ -8,6 +8,7 @@ import net.minecraft.client.renderer.block.model.BakedQuad;
 import net.minecraft.client.renderer.texture.DynamicTexture;
 import net.minecraft.client.renderer.texture.TextureUtil;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
 import net.minecraft.world.IBlockAccess;
 import net.minecraftforge.client.model.pipeline.LightUtil;
 import net.minecraftforge.fml.common.ObfuscationReflectionHelper;
@@ -17,29 +18,37 @@ import vazkii.quark.experimental.features.ColoredLights;
 public class BlockTinter {
 	
 	private static DynamicTexture lightmapTex;
+	
+	// Chunks are built on several threads, each gets its own scratch space
+	private static final ThreadLocal<float[][]> SCRATCH = ThreadLocal.withInitial(() -> new float[2][3]);
+	private static final ThreadLocal<MutableBlockPos> SCRATCH_POS = ThreadLocal.withInitial(MutableBlockPos::new);
 
 	public static void tintBlockFlat(IBlockAccess world, IBlockState state, BlockPos pos, BufferBuilder buffer, BakedQuad quad, int lightColor) {
 		if((lightColor & 0xF0) == 0)
 			return;
 		
-		float[] colors = ColoredLightSystem.getLightColor(world, pos.offset(quad.getFace()));
+		float[][] scratch = SCRATCH.get();
+		float[] colors = scratch[0];
+		float[] quadTint = scratch[1];
+		
+		MutableBlockPos facing = SCRATCH_POS.get();
+		facing.setPos(pos).move(quad.getFace());
+		if(!ColoredLightSystem.getLightColor(facing, colors))
+			return;
 		
 		if(ColoredLights.cullToLightmap)
-			colors = cullColorsToLightmap(colors, lightColor);
+			cullColorsToLightmap(colors, lightColor);
 		
-		if(colors.length > 0) {
-			float[] quadTint = tintQuad(quad, state, world, pos, buffer);
-			if(quadTint != null)
-				for(int i = 0; i < 3; i++)
-					colors[i] *= quadTint[i];
-			
-			for(int i = 1; i < 5; i++)
-				buffer.putColorMultiplier(colors[0], colors[1], colors[2], i);
-		}
+		if(tintQuad(quad, state, world, pos, buffer, quadTint))
+			for(int i = 0; i < 3; i++)
+				colors[i] *= quadTint[i];
+		
+		for(int i = 1; i < 5; i++)
+			buffer.putColorMultiplier(colors[0], colors[1], colors[2], i);
 	}
 	
 	// Copied from vanilla BlockModelRenderer
-	private static float[] tintQuad(BakedQuad bakedquad, IBlockState stateIn, IBlockAccess blockAccessIn, BlockPos posIn, BufferBuilder buffer) {
+	private static boolean tintQuad(BakedQuad bakedquad, IBlockState stateIn, IBlockAccess blockAccessIn, BlockPos posIn, BufferBuilder buffer, float[] out) {
 		if(bakedquad.hasTintIndex()) {
 			int k = Minecraft.getMinecraft().getBlockColors().colorMultiplier(stateIn, blockAccessIn, posIn, bakedquad.getTintIndex());
 
@@ -56,20 +65,21 @@ public class BlockTinter {
 				f2 *= diffuse;
 			}
 
-			return new float[] { f, f1, f2 };
+			out[0] = f;
+			out[1] = f1;
+			out[2] = f2;
+			return true;
 		}
 		else if(bakedquad.shouldApplyDiffuseLighting()) {
 			float diffuse = LightUtil.diffuseLight(bakedquad.getFace());
-			return new float[] { diffuse, diffuse, diffuse };
+			out[0] = out[1] = out[2] = diffuse;
+			return true;
 		}
 		
-		return null;
+		return false;
 	}
 	
-	private static float[] cullColorsToLightmap(float[] colors, int lightmapPos) {
-		if(colors.length < 3)
-			return colors;
-		
+	private static void cullColorsToLightmap(float[] colors, int lightmapPos) {
 		int sunlight = (lightmapPos & 0xF00000) >> 20;
 		
 		int index = sunlight * 16;
@@ -80,7 +90,9 @@ public class BlockTinter {
 		float g = (float) ((lightmapColor >> 8) & 0xFF)  / 0xFF;
 		float b = (float) ((lightmapColor) & 0xFF)  / 0xFF;
 		
-		return new float[] { Math.max(r, colors[0]), Math.max(g, colors[1]), Math.max(b, colors[2]) };
+		colors[0] = Math.max(r, colors[0]);
+		colors[1] = Math.max(g, colors[1]);
+		colors[2] = Math.max(b, colors[2]);
 	}
 	
 	private static int[] getLightmapColors() {
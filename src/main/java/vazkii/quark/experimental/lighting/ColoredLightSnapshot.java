@@ -0,0 +1,70 @@
+package vazkii.quark.experimental.lighting;
+
+import java.util.List;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+
+/**
+ * Immutable view of the registered light sources, built on the client thread and
+ * read by the chunk render workers.
+ */
+public final class ColoredLightSnapshot {
+
+	public static final ColoredLightSnapshot EMPTY = new ColoredLightSnapshot(new Long2ObjectOpenHashMap<>());
+	
+	private final Long2ObjectMap<Entry[]> entriesBySection;
+	
+	private ColoredLightSnapshot(Long2ObjectMap<Entry[]> entriesBySection) {
+		this.entriesBySection = entriesBySection;
+	}
+	
+	public Entry[] getEntries(long sectionKey) {
+		return entriesBySection.get(sectionKey);
+	}
+	
+	public static ColoredLightSnapshot build(Long2ObjectMap<List<LightSource>> sourcesBySection) {
+		if(sourcesBySection.isEmpty())
+			return EMPTY;
+		
+		Long2ObjectMap<Entry[]> entries = new Long2ObjectOpenHashMap<>(sourcesBySection.size());
+		for(Long2ObjectMap.Entry<List<LightSource>> section : sourcesBySection.long2ObjectEntrySet()) {
+			List<LightSource> sources = section.getValue();
+			Entry[] sectionEntries = new Entry[sources.size()];
+			for(int i = 0; i < sectionEntries.length; i++)
+				sectionEntries[i] = new Entry(sources.get(i));
+			
+			entries.put(section.getLongKey(), sectionEntries);
+		}
+		
+		return new ColoredLightSnapshot(entries);
+	}
+	
+	public static final class Entry {
+		
+		public final LightSource source;
+		public final float brightness;
+		public final float r, g, b;
+		
+		private Entry(LightSource source) {
+			this.source = source;
+			
+			IBlockState state = source.state;
+			Block block = state.getBlock();
+			brightness = (float) state.getLightValue(source.world, source.pos) / 15F;
+			
+			float[] colors = block instanceof IColoredLightSource ? ((IColoredLightSource) block).getColoredLight(source.world, source.pos) : null;
+			if(colors == null || colors.length != 3)
+				r = g = b = 1F;
+			else {
+				r = colors[0];
+				g = colors[1];
+				b = colors[2];
+			}
+		}
+		
+	}
+	
+}
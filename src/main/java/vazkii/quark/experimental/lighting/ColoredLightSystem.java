@@ -1,6 +1,7 @@
 package vazkii.quark.experimental.lighting;
 
-import net.minecraft.block.Block;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.client.Minecraft;
 import net.minecraft.util.math.BlockPos;
@@ -8,71 +9,76 @@ import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.IBlockAccess;
 import net.minecraft.world.World;
 import net.minecraftforge.common.ForgeModContainer;
-import vazkii.arl.util.ClientTicker;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.ListIterator;
 
 public final class ColoredLightSystem {
 
-	private static List<LightSource> lightSources = new ArrayList<>();
-	private static List<LightSource> currentSources = new ArrayList<>();
+	// Light can't travel further than this, so a query never looks past the sections it reaches
+	public static final int MAX_RADIUS = 15;
 	
-	private static int lastFrame;
+	// Only touched from the client thread
+	private static final Long2ObjectMap<LightSource> sourcesByPos = new Long2ObjectOpenHashMap<>();
+	private static final Long2ObjectMap<List<LightSource>> sourcesBySection = new Long2ObjectOpenHashMap<>();
+	private static boolean changed;
+	
+	// What the chunk render workers read
+	private static volatile ColoredLightSnapshot snapshot = ColoredLightSnapshot.EMPTY;
+	
+	private static World currentWorld;
 	
 	public static void tick(Minecraft mc) {
 		ForgeModContainer.forgeLightPipelineEnabled = false;
 		mc.gameSettings.ambientOcclusion = 0;
 
-		World world = mc.world;
-		if(world == null) {
-			lightSources.clear();
-			currentSources.clear();
+		if(mc.world != currentWorld) {
+			clear();
+			currentWorld = mc.world;
 		}
 		
-		List<LightSource> tempList = new ArrayList<>(lightSources);
-		tempList.removeIf((src) -> src == null || !src.isValid(world));
-		currentSources = tempList;
+		if(changed) {
+			snapshot = ColoredLightSnapshot.build(sourcesBySection);
+			changed = false;
+		}
 	}
 	
-	public static float[] getLightColor(IBlockAccess world, BlockPos pos) {
+	/**
+	 * Writes the colored light at the given position into the first three slots of out.
+	 * Returns false if there's no colored light there. Safe to call from chunk render workers.
+	 */
+	public static boolean getLightColor(BlockPos pos, float[] out) {
+		ColoredLightSnapshot current = snapshot;
 		float maxBrightness = 0;
 		float addR, addG, addB;
 		addR = addG = addB = 0;
 		
-		int time = ClientTicker.ticksInGame;
-		if(time != lastFrame)
-			prepareFrame();
-		lastFrame = time;
+		int x = pos.getX();
+		int y = pos.getY();
+		int z = pos.getZ();
 		
-		for(LightSource src : currentSources) {
-			BlockPos srcPos = src.pos;
-			IBlockState srcState = world.getBlockState(srcPos);
-			Block srcBlock = srcState.getBlock();
-			if(!(srcBlock instanceof IColoredLightSource))
-				continue;
-			
-			int srcLight = srcState.getLightValue(world, srcPos);
-			float brightness = (float) srcLight / 15F;
-
-			int incidence = src.getIndidence(pos);
-			
-			if(incidence > 0) {
-				float incidenceF = (float) incidence / 15F;
-				float localBrightness = brightness * incidenceF;
-				
-				float[] colors = ((IColoredLightSource) srcBlock).getColoredLight(world, srcPos);
-				if(colors.length != 3)
-					colors = new float[] { 1F, 1F, 1F };
-				
-				maxBrightness = Math.max(maxBrightness, localBrightness);
-				
-				addR += colors[0] * localBrightness;
-				addG += colors[1] * localBrightness;
-				addB += colors[2] * localBrightness;
-			}
-		}
+		for(int sx = (x - MAX_RADIUS) >> 4; sx <= (x + MAX_RADIUS) >> 4; sx++)
+			for(int sy = (y - MAX_RADIUS) >> 4; sy <= (y + MAX_RADIUS) >> 4; sy++)
+				for(int sz = (z - MAX_RADIUS) >> 4; sz <= (z + MAX_RADIUS) >> 4; sz++) {
+					ColoredLightSnapshot.Entry[] entries = current.getEntries(sectionKey(sx, sy, sz));
+					if(entries == null)
+						continue;
+					
+					for(ColoredLightSnapshot.Entry entry : entries) {
+						int incidence = entry.source.getIndidence(pos);
+						
+						if(incidence > 0) {
+							float incidenceF = (float) incidence / 15F;
+							float localBrightness = entry.brightness * incidenceF;
+							
+							maxBrightness = Math.max(maxBrightness, localBrightness);
+							
+							addR += entry.r * localBrightness;
+							addG += entry.g * localBrightness;
+							addB += entry.b * localBrightness;
+						}
+					}
+				}
 		
 		float strongestColor = Math.max(addR, Math.max(addG, addB));
 		
@@ -82,38 +88,122 @@ public final class ColoredLightSystem {
 			addG /= strongestColor;
 			addB /= strongestColor;
 			
-			addR = MathHelper.clamp(addR, lower, 1F);
-			addG = MathHelper.clamp(addG, lower, 1F);
-			addB = MathHelper.clamp(addB, lower, 1F);
-			
-			return new float[] { addR, addG, addB };
+			out[0] = MathHelper.clamp(addR, lower, 1F);
+			out[1] = MathHelper.clamp(addG, lower, 1F);
+			out[2] = MathHelper.clamp(addB, lower, 1F);
+			return true;
 		}
 		
-		return new float[0];
-	}
-	
-	private static void prepareFrame() {
-		for(LightSource src : currentSources)
-			src.newFrame();
+		return false;
 	}
 	
 	public static void addLightSource(IBlockAccess access, BlockPos pos, IBlockState state) {
-		if(!(access instanceof World))
+		if(!(access instanceof World) || !((World) access).isRemote || !Minecraft.getMinecraft().isCallingFromMinecraftThread())
 			return;
 		
 		World world = (World) access;
-		ListIterator<LightSource> iterator = lightSources.listIterator();
-		while(iterator.hasNext()) {
-			LightSource src = iterator.next();
-			if(src.pos.equals(pos)) {
-				if(!src.isValid(world))
-					iterator.remove();
-				else return;
-			}
+		long key = pos.toLong();
+		LightSource existing = sourcesByPos.get(key);
+		if(existing != null) {
+			if(existing.world == world && existing.state == state)
+				return;
+			
+			removeLightSource(existing);
 		}
 		
 		int brightness = state.getBlock().getLightValue(state, access, pos);
-		lightSources.add(new LightSource(world, pos, state, brightness));
+		LightSource src = new LightSource(world, pos.toImmutable(), state, brightness);
+		sourcesByPos.put(key, src);
+		
+		long section = sectionKey(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4);
+		List<LightSource> sources = sourcesBySection.get(section);
+		if(sources == null) {
+			sources = new ArrayList<>();
+			sourcesBySection.put(section, sources);
+		}
+		sources.add(src);
+		changed = true;
+	}
+	
+	/**
+	 * Called when a block changes in the client world, drops the source there if it's no longer
+	 * the block that was registered, and invalidates the sources whose light could reach it.
+	 */
+	public static void onBlockChanged(World world, BlockPos pos, IBlockState newState) {
+		LightSource src = sourcesByPos.get(pos.toLong());
+		if(src != null && (src.world != world || src.state != newState))
+			removeLightSource(src);
+		
+		int x = pos.getX();
+		int y = pos.getY();
+		int z = pos.getZ();
+		for(int sx = (x - MAX_RADIUS) >> 4; sx <= (x + MAX_RADIUS) >> 4; sx++)
+			for(int sy = (y - MAX_RADIUS) >> 4; sy <= (y + MAX_RADIUS) >> 4; sy++)
+				for(int sz = (z - MAX_RADIUS) >> 4; sz <= (z + MAX_RADIUS) >> 4; sz++) {
+					List<LightSource> sources = sourcesBySection.get(sectionKey(sx, sy, sz));
+					if(sources != null)
+						for(LightSource other : sources)
+							if(other.isInRange(pos)) {
+								other.invalidate();
+								
+								// Colors can depend on the blocks around the source
+								changed = true;
+							}
+				}
+	}
+	
+	public static void onChunkLoaded(World world, int chunkX, int chunkZ) {
+		invalidateAround(chunkX, chunkZ);
+	}
+	
+	public static void onChunkUnloaded(World world, int chunkX, int chunkZ) {
+		for(int sy = 0; sy < 16; sy++) {
+			List<LightSource> sources = sourcesBySection.get(sectionKey(chunkX, sy, chunkZ));
+			if(sources != null)
+				for(LightSource src : new ArrayList<>(sources))
+					if(src.world == world)
+						removeLightSource(src);
+		}
+		
+		invalidateAround(chunkX, chunkZ);
+	}
+	
+	// Neighbouring sources may have flooded into this chunk while it read as air
+	private static void invalidateAround(int chunkX, int chunkZ) {
+		for(int cx = chunkX - 1; cx <= chunkX + 1; cx++)
+			for(int cz = chunkZ - 1; cz <= chunkZ + 1; cz++)
+				for(int sy = 0; sy < 16; sy++) {
+					List<LightSource> sources = sourcesBySection.get(sectionKey(cx, sy, cz));
+					if(sources != null)
+						for(LightSource src : sources) {
+							src.invalidate();
+							changed = true;
+						}
+				}
+	}
+	
+	private static void removeLightSource(LightSource src) {
+		sourcesByPos.remove(src.pos.toLong());
+		
+		long section = sectionKey(src.pos.getX() >> 4, src.pos.getY() >> 4, src.pos.getZ() >> 4);
+		List<LightSource> sources = sourcesBySection.get(section);
+		if(sources != null) {
+			sources.remove(src);
+			if(sources.isEmpty())
+				sourcesBySection.remove(section);
+		}
+		changed = true;
+	}
+	
+	private static void clear() {
+		sourcesByPos.clear();
+		sourcesBySection.clear();
+		changed = true;
+	}
+	
+	// Same bit layout as BlockPos.toLong, on section coordinates
+	static long sectionKey(int sectionX, int sectionY, int sectionZ) {
+		return ((long) sectionX & 0x3FFFFFFL) << 38 | ((long) sectionY & 0xFFFL) << 26 | ((long) sectionZ & 0x3FFFFFFL);
 	}
 	
 }
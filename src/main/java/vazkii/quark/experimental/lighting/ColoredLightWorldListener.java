@@ -0,0 +1,78 @@
+package vazkii.quark.experimental.lighting;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.util.SoundCategory;
+import net.minecraft.util.SoundEvent;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IWorldEventListener;
+import net.minecraft.world.World;
+
+public class ColoredLightWorldListener implements IWorldEventListener {
+
+	@Override
+	public void notifyBlockUpdate(@Nonnull World worldIn, @Nonnull BlockPos pos, @Nonnull IBlockState oldState, @Nonnull IBlockState newState, int flags) {
+		if(oldState != newState)
+			ColoredLightSystem.onBlockChanged(worldIn, pos, newState);
+	}
+
+	@Override
+	public void notifyLightSet(@Nonnull BlockPos pos) {
+		// NO-OP
+	}
+
+	@Override
+	public void markBlockRangeForRenderUpdate(int x1, int y1, int z1, int x2, int y2, int z2) {
+		// NO-OP
+	}
+
+	@Override
+	public void playSoundToAllNearExcept(@Nullable EntityPlayer player, @Nonnull SoundEvent soundIn, @Nonnull SoundCategory category, double x, double y, double z, float volume, float pitch) {
+		// NO-OP
+	}
+
+	@Override
+	public void playRecord(@Nonnull SoundEvent soundIn, @Nonnull BlockPos pos) {
+		// NO-OP
+	}
+
+	@Override
+	public void spawnParticle(int particleID, boolean ignoreRange, double xCoord, double yCoord, double zCoord, double xSpeed, double ySpeed, double zSpeed, @Nonnull int... parameters) {
+		// NO-OP
+	}
+
+	@Override
+	public void spawnParticle(int id, boolean ignoreRange, boolean minimiseParticleLevel, double x, double y, double z, double xSpeed, double ySpeed, double zSpeed, @Nonnull int... parameters) {
+		// NO-OP
+	}
+
+	@Override
+	public void onEntityAdded(@Nonnull Entity entityIn) {
+		// NO-OP
+	}
+
+	@Override
+	public void onEntityRemoved(@Nonnull Entity entityIn) {
+		// NO-OP
+	}
+
+	@Override
+	public void broadcastSound(int soundID, @Nonnull BlockPos pos, int data) {
+		// NO-OP
+	}
+
+	@Override
+	public void playEvent(@Nullable EntityPlayer player, int type, @Nonnull BlockPos blockPosIn, int data) {
+		// NO-OP
+	}
+
+	@Override
+	public void sendBlockBreakProgress(int breakerId, @Nonnull BlockPos pos, int progress) {
+		// NO-OP
+	}
+
+}
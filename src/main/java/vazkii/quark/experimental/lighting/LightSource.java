@@ -1,31 +1,44 @@
 package vazkii.quark.experimental.lighting;
 
+import java.util.Arrays;
+
 import net.minecraft.block.state.IBlockState;
-import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.world.IBlockAccess;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
 import net.minecraft.world.World;
 import vazkii.quark.experimental.features.ColoredLights;
 
 public class LightSource {
 
+	private static final ThreadLocal<FloodQueue> QUEUES = ThreadLocal.withInitial(FloodQueue::new);
+	
 	public final World world;
 	public final BlockPos pos;
 	public final IBlockState state;
 	public final byte brightness;
 
-	byte[][][] incidences = null;
+	private final int size;
+	
+	// Volumes are never written after they're published, render workers read them as they are
+	private volatile byte[] incidences = null;
+	private int generation;
 
 	public LightSource(World world, BlockPos pos, IBlockState state, int brightness) {
 		this.world = world;
 		this.pos = pos;
 		this.state = state;
 		this.brightness = (byte) brightness;
+		size = Math.max(0, brightness) * 2 + 1;
 	}
 
-	public void newFrame() {
+	public synchronized void invalidate() {
+		generation++;
 		incidences = null;
 	}
+	
+	public boolean isInRange(BlockPos checkPos) {
+		return manhattanDistance(checkPos) < brightness;
+	}
 
 	public int getIndidence(BlockPos checkPos) {
 		int dist = manhattanDistance(checkPos); 
@@ -33,11 +46,11 @@ public class LightSource {
 			return 0;
 		
 		if(ColoredLights.simulateTravel) {
-			if(incidences == null)
-				computeIncidences();
+			byte[] volume = incidences;
+			if(volume == null)
+				volume = computeIncidences();
 			
-			int[] coords = posToIndex(checkPos);
-			return getIncidenceAtCoords(coords);
+			return volume[index(checkPos.getX() - pos.getX() + brightness, checkPos.getY() - pos.getY() + brightness, checkPos.getZ() - pos.getZ() + brightness)];
 		}
 		
 		return 15 - dist;
@@ -51,92 +64,126 @@ public class LightSource {
 		return Math.abs(pos.getX() - target.getX()) + Math.abs(pos.getY() - target.getY()) + Math.abs(pos.getZ() - target.getZ());
 	}
 	
-	void computeIncidences() {
-		int size = brightness * 2 + 1;
-		incidences = new byte[size][size][size];
-
-		Edge[] edges = new Edge[size * size * 2];
-		Edge[] edges2 = new Edge[edges.length];
-
-		edges[0] = new Edge(pos, brightness);
-
-		while(edges[0] != null) {
-			int newIndex = 0;
-
-			for(int i = 0; i < edges.length; i++) {
-				Edge edge = edges[i];
-				if(edge == null)
-					break;
-
-				for(EnumFacing face : EnumFacing.VALUES) {
-					Edge next = edge.next(world, face);
-					if(next != null) {
-						int[] coords = posToIndex(next.pos);
-						byte curr = getIncidenceAtCoords(coords);
-						if(next.light > curr) {
-							pushByteToCoords(coords, next.light);
-							if(newIndex >= edges2.length)
-								return;
-
-							edges2[newIndex++] = next;
-						}
-					}
-				}
-			}
-
-			Edge[] tempEdges = edges;
-			edges2[newIndex] = null;
-			edges = edges2;
-			edges2 = tempEdges;
+	byte[] computeIncidences() {
+		int startGeneration;
+		synchronized(this) {
+			startGeneration = generation;
+		}
+		
+		byte[] volume = new byte[size * size * size];
+		if(brightness > 0)
+			flood(volume);
+		
+		synchronized(this) {
+			if(generation == startGeneration)
+				incidences = volume;
 		}
+		
+		return volume;
 	}
-
-	int[] posToIndex(BlockPos target) {
-		int xdiff = pos.getX() - target.getX() + brightness;
-		int ydiff = pos.getY() - target.getY() + brightness;
-		int zdiff = pos.getZ() - target.getZ() + brightness;
+	
+	private void flood(byte[] volume) {
+		FloodQueue queue = QUEUES.get();
+		queue.clear();
+		queue.push(pack(index(brightness, brightness, brightness), brightness));
+		
+		MutableBlockPos mutable = new MutableBlockPos();
+		int originX = pos.getX() - brightness;
+		int originY = pos.getY() - brightness;
+		int originZ = pos.getZ() - brightness;
 		
-		int[] coords = new int[] { xdiff, ydiff, zdiff };
-		return coords;
+		// Each entry is a volume index and the light reaching it, neighbours are only
+		// queued when they get brighter so every cell settles on its best path
+		while(!queue.isEmpty()) {
+			int entry = queue.poll();
+			int index = entry >> 4;
+			int light = entry & 0xF;
+			int z = index % size;
+			int y = (index / size) % size;
+			int x = index / (size * size);
+			
+			for(int face = 0; face < 6; face++) {
+				int nx = x, ny = y, nz = z;
+				switch(face) {
+				case 0: ny--; break;
+				case 1: ny++; break;
+				case 2: nz--; break;
+				case 3: nz++; break;
+				case 4: nx--; break;
+				default: nx++; break;
+				}
+				
+				if(nx < 0 || ny < 0 || nz < 0 || nx >= size || ny >= size || nz >= size)
+					continue;
+				
+				mutable.setPos(originX + nx, originY + ny, originZ + nz);
+				int opacity = world.getBlockState(mutable).getLightOpacity(world, mutable);
+				if(opacity < 0)
+					continue;
+				
+				int nextLight = light - opacity - 1;
+				if(nextLight <= 0)
+					continue;
+				
+				int nextIndex = index(nx, ny, nz);
+				if(nextLight > volume[nextIndex]) {
+					volume[nextIndex] = (byte) nextLight;
+					queue.push(pack(nextIndex, nextLight));
+				}
+			}
+		}
 	}
-
-	byte getIncidenceAtCoords(int[] coords) {
-		return (incidences[coords[0]][coords[1]][coords[2]]);
+	
+	private int index(int x, int y, int z) {
+		return (x * size + y) * size + z;
 	}
-
-	void pushByteToCoords(int[] coords, byte b) {
-		incidences[coords[0]][coords[1]][coords[2]] = b;
+	
+	private static int pack(int index, int light) {
+		return index << 4 | light;
 	}
 
-
 	@Override
 	public boolean equals(Object obj) {
 		return obj == this || pos.equals(obj) || (obj != null && (obj instanceof LightSource && ((LightSource) obj).pos.equals(pos)));
 	}
+	
+	@Override
+	public int hashCode() {
+		return pos.hashCode();
+	}
 
-	private static class Edge {
-
-		final BlockPos pos;
-		final byte light;
+	private static class FloodQueue {
 
-		private Edge(BlockPos pos, byte light) {
-			this.pos = pos;
-			this.light = light;
+		int[] data = new int[1024];
+		int head, tail;
+		
+		void clear() {
+			head = tail = 0;
 		}
-
-		Edge next(IBlockAccess world, EnumFacing face) {
-			BlockPos nextPos = pos.offset(face);
-			byte opacity = (byte) world.getBlockState(nextPos).getLightOpacity(world, nextPos);
-			if(opacity < 0)
-				return null;
-
-			byte nextLight = (byte) (light - opacity - 1);
-			if(nextLight <= 0)
-				return null;
-
-			return new Edge(nextPos, nextLight);
+		
+		boolean isEmpty() {
+			return head == tail;
 		}
-
+		
+		void push(int value) {
+			if(tail == data.length) {
+				if(head > 0) {
+					System.arraycopy(data, head, data, 0, tail - head);
+					tail -= head;
+					head = 0;
+				}
+				
+				if(tail == data.length)
+					data = Arrays.copyOf(data, data.length * 2);
+			}
+			
+			data[tail++] = value;
+		}
+		
+		int poll() {
+			return data[head++];
+		}
+		
 	}
 
 }
@@ -17,6 +17,7 @@ import net.minecraftforge.fml.relauncher.SideOnly;
 import vazkii.arl.network.NetworkHandler;
 import vazkii.quark.base.client.ModKeybinds;
 import vazkii.quark.base.handler.SortingHandler;
+import vazkii.quark.base.handler.StatsHandler;
 import vazkii.quark.base.module.Feature;
 import vazkii.quark.base.network.message.MessageSortInventory;
 import vazkii.quark.management.client.gui.GuiButtonChest;
@@ -44,6 +45,11 @@ public class InventorySorting extends Feature {
 		classnames = Lists.newArrayList(classnamesArr);
 	}
 	
+	@Override
+	public void preInit(FMLPreInitializationEvent event) {
+		StatsHandler.register("sorting", SortingHandler::getStats);
+	}
+	
 	@Override
 	@SideOnly(Side.CLIENT)
 	public void preInitClient(FMLPreInitializationEvent event) {
@@ -4,9 +4,8 @@ import net.minecraft.entity.boss.EntityDragon;
 import net.minecraft.entity.item.EntityItem;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
-import net.minecraftforge.event.entity.living.LivingEvent.LivingUpdateEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import vazkii.quark.base.handler.LivingUpdateHandler;
 import vazkii.quark.base.module.Feature;
 import vazkii.quark.misc.item.ItemEnderdragonScale;
 import vazkii.quark.misc.recipe.ElytraDuplicationRecipe;
@@ -19,6 +18,10 @@ public class EnderdragonScales extends Feature {
 	public static boolean dyeBlack;
 	int dropped;
 	
+	public EnderdragonScales() {
+		LivingUpdateHandler.register(this, EntityDragon.class, this::onEntityTick);
+	}
+	
 	@Override
 	public void setupConfig() {
 		required = loadPropInt("Required Scales per Elytra", "", 1);
@@ -33,15 +36,13 @@ public class EnderdragonScales extends Feature {
 		new ElytraDuplicationRecipe();
 	}
 	
-	@SubscribeEvent
-	public void onEntityTick(LivingUpdateEvent event) {
-		if(event.getEntityLiving() instanceof EntityDragon && !event.getEntity().getEntityWorld().isRemote) {
-			EntityDragon dragon = (EntityDragon) event.getEntity();
+	public void onEntityTick(EntityDragon dragon) {
+		if(dragon.getEntityWorld().isRemote)
+			return;
 
-			if(dragon.getFightManager() != null && dragon.getFightManager().hasPreviouslyKilledDragon() && dragon.deathTicks == 100) {
-				EntityItem item = new EntityItem(dragon.world, dragon.posX, dragon.posY, dragon.posZ, new ItemStack(enderdragonScale, dropped));
-				dragon.world.spawnEntity(item);
-			}
+		if(dragon.getFightManager() != null && dragon.getFightManager().hasPreviouslyKilledDragon() && dragon.deathTicks == 100) {
+			EntityItem item = new EntityItem(dragon.world, dragon.posX, dragon.posY, dragon.posZ, new ItemStack(enderdragonScale, dropped));
+			dragon.world.spawnEntity(item);
 		}
 	}
 	
@@ -50,9 +51,4 @@ public class EnderdragonScales extends Feature {
 		return true;
 	}
 	
-	@Override
-	public boolean hasSubscriptions() {
-		return true;
-	}
-	
 }
@@ -1,9 +1,7 @@
 package vazkii.quark.misc.feature;
 
-import net.minecraft.entity.ai.EntityAITasks.EntityAITaskEntry;
 import net.minecraft.entity.monster.EntityEndermite;
-import net.minecraftforge.event.entity.EntityEvent.EnteringChunk;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import vazkii.quark.base.handler.AITaskHandler;
 import vazkii.quark.base.module.Feature;
 import vazkii.quark.misc.ai.AIFormShulker;
 
@@ -11,28 +9,15 @@ public class EndermitesIntoShulkers extends Feature {
 
 	public static int chance = 200;
 
+	public EndermitesIntoShulkers() {
+		AITaskHandler.addTask(this, EntityEndermite.class, AIFormShulker.class, 2, AIFormShulker::new);
+	}
+	
 	@Override
 	public void setupConfig() {
 		chance = loadPropInt("Transform Chance", "The chance (1 in X) for an Endermite to turn into a Shulker.\nThe higher, the lower the chance. The chance for s Silverfish to bury is 10, for reference.", chance); 
 	}
 	
-	@SubscribeEvent
-	public void onEnterChunk(EnteringChunk event) {
-		if(event.getEntity() instanceof EntityEndermite) {
-			EntityEndermite endermite = (EntityEndermite) event.getEntity();
-			for(EntityAITaskEntry task : endermite.tasks.taskEntries)
-				if(task.action instanceof AIFormShulker)
-					return;
-			
-			endermite.tasks.addTask(2, new AIFormShulker(endermite));
-		}
-	}
-	
-	@Override	
-	public boolean hasSubscriptions() {
-		return true;
-	}
-
 	@Override
 	public String[] getIncompatibleMods() {
 		return new String[] { "mite2shulker" };
@@ -9,9 +9,8 @@ import net.minecraft.world.storage.MapDecoration.Type;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent.RightClickItem;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
-import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
-import net.minecraftforge.fml.common.gameevent.TickEvent.PlayerTickEvent;
 import vazkii.arl.util.ItemNBTHelper;
+import vazkii.quark.base.handler.InventoryWatchHandler;
 import vazkii.quark.base.module.Feature;
 import vazkii.quark.misc.recipe.MapPinningRecipe;
 
@@ -21,6 +20,10 @@ public class MapMarkers extends Feature {
 	
 	boolean useRightClick;
 	
+	public MapMarkers() {
+		InventoryWatchHandler.onChanged(this, (ItemStack stack) -> stack.hasTagCompound() && ItemNBTHelper.getBoolean(stack, TAG_ADD_PIN, false), this::onPinnedMap);
+	}
+	
 	@Override
 	public void setupConfig() {
 		useRightClick = loadPropBool("Use Right Click", "If enabled, replaces the recipe to add the marker with right clicking for the same purpose", false);
@@ -38,17 +41,10 @@ public class MapMarkers extends Feature {
 			addMarker(event.getItemStack(), event.getEntityPlayer());
 	}
 	
-	@SubscribeEvent
-	public void tick(PlayerTickEvent event) {
-		if(!useRightClick && event.phase == Phase.END) {
-			EntityPlayer player = event.player;
-			for(int i = 0; i < player.inventory.getSizeInventory(); i++) {
-				ItemStack stack = player.inventory.getStackInSlot(i);
-				if(stack.hasTagCompound() && ItemNBTHelper.getBoolean(stack, TAG_ADD_PIN, false)) {
-					addMarker(stack, player);
-					ItemNBTHelper.setBoolean(stack, TAG_ADD_PIN, false);
-				}
-			}
+	public void onPinnedMap(EntityPlayer player, ItemStack stack) {
+		if(!useRightClick) {
+			addMarker(stack, player);
+			ItemNBTHelper.setBoolean(stack, TAG_ADD_PIN, false);
 		}
 	}
 	
@@ -12,7 +12,6 @@ import net.minecraft.util.EnumParticleTypes;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.SoundCategory;
 import net.minecraft.world.WorldServer;
-import net.minecraftforge.event.entity.living.LivingEvent.LivingUpdateEvent;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent;
 import net.minecraftforge.fml.client.registry.RenderingRegistry;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
@@ -21,6 +20,7 @@ import net.minecraftforge.fml.common.registry.EntityRegistry;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 import vazkii.quark.base.Quark;
+import vazkii.quark.base.handler.LivingUpdateHandler;
 import vazkii.quark.base.lib.LibEntityIDs;
 import vazkii.quark.base.module.Feature;
 import vazkii.quark.misc.client.render.RenderParrotEgg;
@@ -40,6 +40,10 @@ public class ParrotEggs extends Feature {
 	int chance, eggTime;
 	boolean enableKotobirb;
 
+	public ParrotEggs() {
+		LivingUpdateHandler.register(this, EntityParrot.class, this::entityUpdate);
+	}
+
 	@Override
 	public void setupConfig() {
 		item = Items.BEETROOT_SEEDS;
@@ -105,18 +109,14 @@ public class ParrotEggs extends Feature {
 		}
 	}
 
-	@SubscribeEvent
-	public void entityUpdate(LivingUpdateEvent event) {
-		Entity e = event.getEntity();
-		if(e instanceof EntityParrot) {
-			int time = e.getEntityData().getInteger(TAG_EGG_TIMER);
-			if(time > 0) {
-				if(time == 1) {
-					e.playSound(SoundEvents.ENTITY_CHICKEN_EGG, 1.0F, (e.world.rand.nextFloat() - e.world.rand.nextFloat()) * 0.2F + 1.0F);
-					e.entityDropItem(new ItemStack(parrot_egg, 1, getResultingEggColor((EntityParrot) e)), 0);
-				}
-				e.getEntityData().setInteger(TAG_EGG_TIMER, time - 1);
+	public void entityUpdate(EntityParrot e) {
+		int time = e.getEntityData().getInteger(TAG_EGG_TIMER);
+		if(time > 0) {
+			if(time == 1) {
+				e.playSound(SoundEvents.ENTITY_CHICKEN_EGG, 1.0F, (e.world.rand.nextFloat() - e.world.rand.nextFloat()) * 0.2F + 1.0F);
+				e.entityDropItem(new ItemStack(parrot_egg, 1, getResultingEggColor(e)), 0);
 			}
+			e.getEntityData().setInteger(TAG_EGG_TIMER, time - 1);
 		}
 	}
 
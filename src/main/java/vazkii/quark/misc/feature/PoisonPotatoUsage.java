@@ -6,9 +6,9 @@ import net.minecraft.entity.passive.EntityAnimal;
 import net.minecraft.init.Items;
 import net.minecraft.init.MobEffects;
 import net.minecraft.potion.PotionEffect;
-import net.minecraftforge.event.entity.living.LivingEvent.LivingUpdateEvent;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent.EntityInteract;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import vazkii.quark.base.handler.LivingUpdateHandler;
 import vazkii.quark.base.module.Feature;
 
 public class PoisonPotatoUsage extends Feature {
@@ -17,6 +17,10 @@ public class PoisonPotatoUsage extends Feature {
 
 	double chance;
 	
+	public PoisonPotatoUsage() {
+		LivingUpdateHandler.register(this, EntityAnimal.class, this::onEntityUpdate);
+	}
+	
 	@Override
 	public void setupConfig() {
 		chance = loadPropDouble("Chance to Poison", "", 0.1);
@@ -39,13 +43,9 @@ public class PoisonPotatoUsage extends Feature {
 		}
 	}
 	
-	@SubscribeEvent
-	public void onEntityUpdate(LivingUpdateEvent event) {
-		if(event.getEntity() instanceof EntityAnimal) {
-			EntityAnimal animal = (EntityAnimal) event.getEntity();
-			if(animal.isChild() && isEntityPoisoned(animal))
-				animal.setGrowingAge(-24000);
-		}
+	public void onEntityUpdate(EntityAnimal animal) {
+		if(animal.isChild() && isEntityPoisoned(animal))
+			animal.setGrowingAge(-24000);
 	}
 	
 	private boolean isEntityPoisoned(Entity e) {
@@ -79,6 +79,10 @@ public class BlockPipe extends BlockModContainer implements IQuarkBlock {
 	@Override
 	@SuppressWarnings("deprecation")
 	public void neighborChanged(IBlockState state, World worldIn, BlockPos pos, Block blockIn, BlockPos fromPos) {
+		TileEntity tile = worldIn.getTileEntity(pos);
+		if(tile instanceof TilePipe)
+			((TilePipe) tile).invalidateNeighbors();
+		
 		boolean flag = !worldIn.isBlockPowered(pos);
 
 		if(flag != state.getValue(ENABLED))
@@ -1,15 +1,23 @@
 package vazkii.quark.oddities.feature;
 
 import net.minecraft.block.Block;
+import net.minecraft.client.Minecraft;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.client.registry.ClientRegistry;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent.ClientTickEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
+import net.minecraftforge.fml.common.gameevent.TickEvent.WorldTickEvent;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 import vazkii.arl.recipe.RecipeHandler;
 import vazkii.arl.util.ProxyRegistry;
+import vazkii.quark.base.handler.StatsHandler;
 import vazkii.quark.base.module.Feature;
 import vazkii.quark.oddities.block.BlockPipe;
 import vazkii.quark.oddities.client.render.RenderTilePipe;
+import vazkii.quark.oddities.tile.PipeTicker;
 import vazkii.quark.oddities.tile.TilePipe;
 
 public class Pipes extends Feature {
@@ -18,6 +26,9 @@ public class Pipes extends Feature {
 	
 	public static int pipeSpeed;
 	public static int maxPipeItems;
+	public static boolean incrementalSync;
+	public static int fullSyncInterval;
+	public static boolean profilePipes;
 	int pipesCrafted;
 	boolean enableRender;
 	
@@ -25,6 +36,12 @@ public class Pipes extends Feature {
 	public void setupConfig() {
 		pipeSpeed = loadPropInt("Pipe Speed", "How long it takes for an item to cross a pipe. Bigger = slower.", 5) * 2;
 		maxPipeItems = loadPropInt("Max Pipe Items", "Set to 0 if you don't want pipes to have a max amount of items", 16);
+		incrementalSync = loadPropBool("Incremental Client Sync", "Only tell clients about items entering a pipe, instead of resending the pipe's whole contents.\n"
+				+ "Clients simulate everything else themselves. Disable this if pipe contents look out of sync.", true);
+		fullSyncInterval = loadPropInt("Full Sync Interval", "With incremental client sync on, how often (in ticks) pipes with items in them resend their whole contents,\n"
+				+ "so anything a client got wrong gets fixed. Set to 0 to never do this.", 100);
+		profilePipes = loadPropBool("Profile Pipes", "Set this to true to time the server's pipe ticks and count what it sends to clients.\n"
+				+ "Use /quarkstats pipes to see the results. This adds a small overhead to every tick, so leave it off normally.", false);
 		pipesCrafted = loadPropInt("Pipes Crafted", "", 6);
 		enableRender = loadPropBool("Enable Pipe Render", "Freel free to disable so you don't see items going through pipes, good if your PC is a potato", true);
 	}
@@ -33,6 +50,8 @@ public class Pipes extends Feature {
 	public void preInit(FMLPreInitializationEvent event) {
 		pipe = new BlockPipe();
 		registerTile(TilePipe.class, "pipe");
+		StatsHandler.register("pipes.sync", TilePipe::getSyncStats);
+		StatsHandler.register("pipes.tick", PipeTicker::getStats);
 	}
 	
 	@Override
@@ -50,6 +69,30 @@ public class Pipes extends Feature {
 			ClientRegistry.bindTileEntitySpecialRenderer(TilePipe.class, new RenderTilePipe());
 	}
 	
+	@SubscribeEvent
+	public void onWorldTick(WorldTickEvent event) {
+		if(event.phase == Phase.END)
+			PipeTicker.tick(event.world);
+	}
+	
+	@SubscribeEvent
+	public void onWorldUnload(WorldEvent.Unload event) {
+		PipeTicker.unload(event.getWorld());
+	}
+	
+	@SubscribeEvent
+	@SideOnly(Side.CLIENT)
+	public void clientTick(ClientTickEvent event) {
+		Minecraft mc = Minecraft.getMinecraft();
+		if(event.phase == Phase.END && mc.world != null && !mc.isGamePaused())
+			PipeTicker.tick(mc.world);
+	}
+	
+	@Override
+	public boolean hasSubscriptions() {
+		return true;
+	}
+	
 	@Override
 	public boolean requiresMinecraftRestartToEnable() {
 		return true;
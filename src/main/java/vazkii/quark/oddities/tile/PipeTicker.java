@@ -0,0 +1,151 @@
+package vazkii.quark.oddities.tile;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import net.minecraft.world.World;
+import vazkii.quark.oddities.feature.Pipes;
+
+/**
+ * Advances every loaded pipe in a world in one pass per tick, so pipes don't each need to
+ * be a tickable tile entity.
+ */
+public final class PipeTicker {
+
+	// One map per logical side, each only ever touched from its own thread. Worlds are dropped
+	// on unload, as the pipes in them hold on to the world themselves
+	private static final Map<World, PipeSet> clientPipes = new HashMap<>();
+	private static final Map<World, PipeSet> serverPipes = new HashMap<>();
+	
+	// Server side profiling, read through /quarkstats pipes.tick when "Profile Pipes" is on
+	private static final com.sun.management.ThreadMXBean allocationBean = getAllocationBean();
+	private static long ticks, pipesTicked, itemsTicked, itemsPassedOut, tickNanos, maxTickNanos, allocatedBytes;
+
+	public static void add(TilePipe pipe) {
+		World world = pipe.getWorld();
+		if(world != null)
+			getPipes(world).computeIfAbsent(world, (World w) -> new PipeSet()).add(pipe);
+	}
+
+	public static void remove(TilePipe pipe) {
+		World world = pipe.getWorld();
+		if(world == null)
+			return;
+		
+		PipeSet set = getPipes(world).get(world);
+		if(set != null)
+			set.remove(pipe);
+	}
+	
+	public static void unload(World world) {
+		getPipes(world).remove(world);
+	}
+	
+	private static Map<World, PipeSet> getPipes(World world) {
+		return world.isRemote ? clientPipes : serverPipes;
+	}
+
+	public static void tick(World world) {
+		PipeSet set = getPipes(world).get(world);
+		if(set == null)
+			return;
+		
+		if(world.isRemote || !Pipes.profilePipes) {
+			set.tick();
+			return;
+		}
+		
+		long threadId = Thread.currentThread().getId();
+		long allocatedBefore = allocationBean == null ? 0 : allocationBean.getThreadAllocatedBytes(threadId);
+		long start = System.nanoTime();
+		
+		set.tick();
+		
+		long time = System.nanoTime() - start;
+		ticks++;
+		tickNanos += time;
+		maxTickNanos = Math.max(maxTickNanos, time);
+		if(allocationBean != null)
+			allocatedBytes += allocationBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+	}
+	
+	static void recordPipeTick(int items) {
+		pipesTicked++;
+		itemsTicked += items;
+	}
+	
+	static void recordPassOut() {
+		itemsPassedOut++;
+	}
+	
+	public static String getStats() {
+		if(ticks == 0)
+			return Pipes.profilePipes ? "no pipe ticks yet" : "enable \"Profile Pipes\" to time pipe ticks";
+		
+		double seconds = ticks / 20.0;
+		return String.format("%d world ticks, %.1f busy pipes/tick, %.1f items/tick, %.1f item hops/s, %.3f ms/tick avg, %.3f ms worst, %.2f us per busy pipe, %s",
+				ticks, (double) pipesTicked / ticks, (double) itemsTicked / ticks, itemsPassedOut / seconds, tickNanos / 1e6 / ticks, maxTickNanos / 1e6,
+				pipesTicked == 0 ? 0 : tickNanos / 1e3 / pipesTicked,
+				allocationBean == null ? "allocations not tracked" : String.format("%d bytes allocated/tick", allocatedBytes / ticks));
+	}
+	
+	private static com.sun.management.ThreadMXBean getAllocationBean() {
+		try {
+			ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			if(bean instanceof com.sun.management.ThreadMXBean) {
+				com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+				if(sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled())
+					return sunBean;
+			}
+		} catch(Throwable e) {
+			// Not a HotSpot style JVM, allocations just won't be reported
+		}
+		
+		return null;
+	}
+
+	public static int getLoadedPipes(World world) {
+		PipeSet set = getPipes(world).get(world);
+		return set == null ? 0 : set.pipes.size();
+	}
+
+	private static class PipeSet {
+
+		final Set<TilePipe> pipes = new LinkedHashSet<>();
+		TilePipe[] ticking = new TilePipe[0];
+		boolean changed;
+
+		void add(TilePipe pipe) {
+			changed |= pipes.add(pipe);
+		}
+
+		void remove(TilePipe pipe) {
+			changed |= pipes.remove(pipe);
+		}
+
+		void tick() {
+			// Pipes can break themselves or others mid pass, so the pass runs over a copy
+			if(changed) {
+				ticking = pipes.toArray(ticking);
+				if(ticking.length > pipes.size())
+					Arrays.fill(ticking, pipes.size(), ticking.length, null);
+				changed = false;
+			}
+
+			for(TilePipe pipe : ticking) {
+				if(pipe == null)
+					break;
+				
+				if(!pipe.isInvalid() && pipe.hasWorld())
+					pipe.tickPipe();
+			}
+		}
+
+	}
+
+}
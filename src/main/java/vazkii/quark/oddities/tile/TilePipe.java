@@ -1,7 +1,7 @@
 package vazkii.quark.oddities.tile;
 
+import io.netty.buffer.Unpooled;
 import net.minecraft.block.Block;
-import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.item.EntityItem;
 import net.minecraft.init.SoundEvents;
 import net.minecraft.inventory.IInventory;
@@ -9,11 +9,12 @@ import net.minecraft.inventory.ISidedInventory;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.server.management.PlayerChunkMapEntry;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.EnumFacing.Axis;
 import net.minecraft.util.EnumParticleTypes;
-import net.minecraft.util.ITickable;
 import net.minecraft.util.SoundCategory;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.WorldServer;
@@ -23,54 +24,106 @@ import net.minecraftforge.items.ItemHandlerHelper;
 import net.minecraftforge.items.wrapper.InvWrapper;
 import net.minecraftforge.items.wrapper.SidedInvWrapper;
 import vazkii.arl.block.tile.TileSimpleInventory;
+import vazkii.arl.network.NetworkHandler;
+import vazkii.quark.base.network.message.MessagePipeItemEnter;
 import vazkii.quark.oddities.block.BlockPipe;
 import vazkii.quark.oddities.feature.Pipes;
 
 import javax.annotation.Nonnull;
 import java.util.*;
 
-public class TilePipe extends TileSimpleInventory implements ITickable {
+public class TilePipe extends TileSimpleInventory {
 
 	private static final String TAG_PIPE_ITEMS = "pipeItems";
+	
+	// Rough packet overheads, the message's position and discriminator, and a tile update's header
+	private static final int DELTA_OVERHEAD = 10;
+	private static final int FULL_SYNC_OVERHEAD = 20;
+	
+	// Only counted while "Profile Pipes" is on
+	private static long syncMessages, fullSyncs, syncBytesSent, syncBytesFull;
 
 	boolean iterating = false;
-	List<PipeItem> pipeItems = new LinkedList<>();
-	List<PipeItem> queuedItems = new LinkedList<>();
+	boolean syncedItems = false;
+	final PipeItemBuffer pipeItems = new PipeItemBuffer();
+	final PipeItemBuffer queuedItems = new PipeItemBuffer();
+
+	final TileEntity[] neighborTiles = new TileEntity[6];
+	boolean neighborsDirty = true;
+
+	@Override
+	public void onLoad() {
+		neighborsDirty = true;
+		PipeTicker.add(this);
+	}
 
 	@Override
-	public void update() {
-		if(!isPipeEnabled() && world.getTotalWorldTime() % 10 == 0 && world instanceof WorldServer) 
+	public void invalidate() {
+		super.invalidate();
+		PipeTicker.remove(this);
+	}
+
+	@Override
+	public void onChunkUnload() {
+		super.onChunkUnload();
+		PipeTicker.remove(this);
+	}
+
+	// Called by PipeTicker once per tick
+	public void tickPipe() {
+		if(world.getTotalWorldTime() % 10 == 0 && world instanceof WorldServer && !isPipeEnabled()) 
 			((WorldServer) world).spawnParticle(EnumParticleTypes.REDSTONE, pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5, 3, 0.2, 0.2, 0.2, 0);
 
+		// Clients only hear about items entering, so anything their simulation gets wrong stays
+		// wrong until the whole pipe is sent again. Once more after emptying, to clear strays
+		if(Pipes.incrementalSync && Pipes.fullSyncInterval > 0 && world instanceof WorldServer && (!pipeItems.isEmpty() || syncedItems)
+				&& Math.floorMod(world.getTotalWorldTime() + pos.hashCode(), Pipes.fullSyncInterval) == 0) {
+			syncedItems = !pipeItems.isEmpty();
+			sync();
+			if(Pipes.profilePipes)
+				recordFullSync(getContentsSize());
+		}
+
+		if(pipeItems.isEmpty())
+			return;
+		
 		int currentOut = getComparatorOutput();
 
-		if(!pipeItems.isEmpty()) {
-			if(Pipes.maxPipeItems > 0 && pipeItems.size() > Pipes.maxPipeItems && !world.isRemote) {
-				world.playEvent(2001, pos, Block.getStateId(world.getBlockState(pos)));
-				dropItem(new ItemStack(getBlockType()));
-				world.setBlockToAir(getPos());
-			}
+		if(Pipes.maxPipeItems > 0 && pipeItems.size() > Pipes.maxPipeItems && !world.isRemote) {
+			world.playEvent(2001, pos, Block.getStateId(world.getBlockState(pos)));
+			dropItem(new ItemStack(getBlockType()));
+			world.setBlockToAir(getPos());
+		}
 
-			ListIterator<PipeItem> itemItr = pipeItems.listIterator();
-			iterating = true;
-			while(itemItr.hasNext()) {
-				PipeItem item = itemItr.next();
-				EnumFacing lastFacing = item.outgoingFace;
-				if(item.tick(this)) {
-					itemItr.remove();
-
-					if (item.valid)
-						passOut(item);
-					else {
-						dropItem(item.stack, lastFacing, true);
-					}
+		iterating = true;
+		int size = pipeItems.size();
+		if(Pipes.profilePipes && !world.isRemote)
+			PipeTicker.recordPipeTick(size);
+		int kept = 0;
+		for(int i = 0; i < size; i++) {
+			PipeItem item = pipeItems.get(i);
+			EnumFacing lastFacing = item.outgoingFace;
+			if(item.tick(this)) {
+				if (item.valid)
+					passOut(item);
+				else {
+					dropItem(item.stack, lastFacing, true);
 				}
-			}
-			iterating = false;
-
-			pipeItems.addAll(queuedItems);
-			if(!queuedItems.isEmpty())
+			} else pipeItems.set(kept++, item);
+		}
+		pipeItems.truncate(kept);
+		iterating = false;
+
+		if(!queuedItems.isEmpty()) {
+			if(Pipes.incrementalSync) {
+				if(!world.isRemote)
+					for(PipeItem item : queuedItems)
+						sendItemEntered(item);
+				pipeItems.addAll(queuedItems);
+			} else {
+				pipeItems.addAll(queuedItems);
 				sync();
+			}
 			queuedItems.clear();
 		}
 
@@ -87,7 +140,11 @@ public class TilePipe extends TileSimpleInventory implements ITickable {
 	}
 
 	public boolean passIn(ItemStack stack, EnumFacing face, long seed, int time) {
-		PipeItem item = new PipeItem(stack, face, seed);
+		addItem(new PipeItem(stack, face, seed), time);
+		return true;
+	}
+
+	private void addItem(PipeItem item, int time) {
 		if(!iterating) {
 			int currentOut = getComparatorOutput();
 			pipeItems.add(item);
@@ -95,8 +152,82 @@ public class TilePipe extends TileSimpleInventory implements ITickable {
 			if(getComparatorOutput() != currentOut)
 				world.updateComparatorOutputLevel(getPos(), getBlockType());
 		} else queuedItems.add(item);
+	}
 
-		return true;
+	/**
+	 * Client side, an item the server added that the client's own simulation can't know about.
+	 * It's moved along by however many ticks the message took to get here, short of leaving the
+	 * pipe, so it shows up where the server has it instead of trailing behind.
+	 */
+	public void receiveItem(PipeItem item, int sentAt) {
+		int behind = Math.min((int) world.getTotalWorldTime() - sentAt, Pipes.pipeSpeed - 1 - item.ticksInPipe);
+		for(int i = 0; i < behind; i++)
+			if(item.tick(this))
+				break;
+
+		addItem(item, item.timeInWorld);
+	}
+
+	/**
+	 * Tells watching clients about a single item entering this pipe. Everything else about an
+	 * item's trip, including moving between pipes, is simulated on the client from its seed.
+	 */
+	private void sendItemEntered(PipeItem item) {
+		if(!(world instanceof WorldServer))
+			return;
+		
+		PlayerChunkMapEntry entry = ((WorldServer) world).getPlayerChunkMap().getEntry(pos.getX() >> 4, pos.getZ() >> 4);
+		if(entry == null || !entry.isSentToPlayers())
+			return;
+		
+		NBTTagCompound cmp = new NBTTagCompound();
+		item.writeToNBT(cmp);
+		entry.sendPacket(NetworkHandler.INSTANCE.getPacketFrom(new MessagePipeItemEnter(pos, cmp, (int) world.getTotalWorldTime())));
+		
+		if(Pipes.profilePipes) {
+			// Against what a full resync would have cost: every item in the pipe, the new one included
+			item.encodedSize = getEncodedSize(cmp);
+			recordSync(item.encodedSize + DELTA_OVERHEAD, getContentsSize());
+		}
+	}
+	
+	private int getContentsSize() {
+		int size = FULL_SYNC_OVERHEAD;
+		for(PipeItem item : pipeItems)
+			size += item.getEncodedSize();
+		for(PipeItem item : queuedItems)
+			size += item.getEncodedSize();
+		
+		return size;
+	}
+
+	private static synchronized void recordSync(int sent, int full) {
+		syncMessages++;
+		syncBytesSent += sent;
+		syncBytesFull += full;
+	}
+	
+	private static synchronized void recordFullSync(int sent) {
+		fullSyncs++;
+		syncBytesSent += sent;
+	}
+
+	public static synchronized String getSyncStats() {
+		if(syncMessages == 0 && fullSyncs == 0)
+			return Pipes.profilePipes ? "nothing synced yet" : "enable \"Profile Pipes\" to count synced bytes";
+		
+		return String.format("%d item deltas, %d periodic resyncs, %d bytes sent, %d bytes for full resyncs, %d bytes saved",
+				syncMessages, fullSyncs, syncBytesSent, syncBytesFull, syncBytesFull - syncBytesSent);
+	}
+
+	static int getEncodedSize(NBTTagCompound cmp) {
+		PacketBuffer buf = new PacketBuffer(Unpooled.buffer());
+		try {
+			buf.writeCompoundTag(cmp);
+			return buf.readableBytes();
+		} finally {
+			buf.release();
+		}
 	}
 
 	public boolean passIn(ItemStack stack, EnumFacing face) {
@@ -104,14 +235,18 @@ public class TilePipe extends TileSimpleInventory implements ITickable {
 	}
 
 	protected void passOut(PipeItem item) {
-		BlockPos targetPos = getPos().offset(item.outgoingFace);
-		TileEntity tile = world.getTileEntity(targetPos);
+		if(Pipes.profilePipes && !world.isRemote)
+			PipeTicker.recordPassOut();
+		
+		EnumFacing side = item.outgoingFace;
+		TileEntity tile = getNeighbor(side);
 		boolean did = false;
 		if(tile != null) {
 			if(tile instanceof TilePipe)
-				did = ((TilePipe) tile).passIn(item.stack, item.outgoingFace.getOpposite(), item.rngSeed, item.timeInWorld);
+				did = ((TilePipe) tile).passIn(item.stack, side.getOpposite(), item.rngSeed, item.timeInWorld);
 			else if (!world.isRemote) {
-				ItemStack result = putIntoInv(item.stack, tile, item.outgoingFace.getOpposite(), false);
+				IItemHandler handler = getHandler(tile, side.getOpposite());
+				ItemStack result = handler == null ? item.stack : ItemHandlerHelper.insertItem(handler, item.stack, false);
 				if(result.getCount() != item.stack.getCount()) {
 					did = true;
 					if(!result.isEmpty())
@@ -190,36 +325,74 @@ public class TilePipe extends TileSimpleInventory implements ITickable {
 		cmp.setTag(TAG_PIPE_ITEMS, pipeItemList);
 	}
 
-	protected boolean canFit(ItemStack stack, BlockPos pos, EnumFacing face) {
-		TileEntity tile = world.getTileEntity(pos);
+	protected boolean canFit(ItemStack stack, EnumFacing side) {
+		TileEntity tile = getNeighbor(side);
 		if(tile == null)
 			return false;
 
 		if(tile instanceof TilePipe)
 			return ((TilePipe) tile).isPipeEnabled();
-		else {
-			ItemStack result = putIntoInv(stack, tile, face, true);
-			return result.isEmpty();
+		
+		return getHandler(tile, side.getOpposite()) != null;
+	}
+
+	public void invalidateNeighbors() {
+		neighborsDirty = true;
+	}
+
+	/**
+	 * The tile entity on the given side. The server keeps these until a neighbour changes, instead
+	 * of looking them up on every routing decision. Clients never hear about neighbour changes, so
+	 * they always look. Handlers aren't kept on either side, as tiles may swap theirs out at any time.
+	 * Tiles in another chunk load and unload with it without any neighbour update, so those are
+	 * never kept either, and only looked up while their chunk is loaded.
+	 */
+	protected TileEntity getNeighbor(EnumFacing side) {
+		if(world.isRemote)
+			return world.getTileEntity(pos.offset(side));
+		
+		if(isAcrossChunkBorder(side)) {
+			BlockPos neighborPos = pos.offset(side);
+			return world.isBlockLoaded(neighborPos) ? world.getTileEntity(neighborPos) : null;
 		}
+		
+		int index = side.ordinal();
+		TileEntity tile = neighborTiles[index];
+		if(neighborsDirty || (tile != null && tile.isInvalid())) {
+			resolveNeighbors();
+			tile = neighborTiles[index];
+		}
+
+		return tile;
 	}
 
+	private void resolveNeighbors() {
+		for(EnumFacing side : EnumFacing.VALUES)
+			neighborTiles[side.ordinal()] = isAcrossChunkBorder(side) ? null : world.getTileEntity(pos.offset(side));
+
+		neighborsDirty = false;
+	}
+
+	private boolean isAcrossChunkBorder(EnumFacing side) {
+		return (pos.getX() + side.getXOffset()) >> 4 != pos.getX() >> 4 || (pos.getZ() + side.getZOffset()) >> 4 != pos.getZ() >> 4;
+	}
+
+	@SuppressWarnings("deprecation")
 	protected boolean isPipeEnabled() {
-		IBlockState state = world.getBlockState(pos);
-		return state.getBlock() instanceof BlockPipe && state.getValue(BlockPipe.ENABLED);
+		// The tile's cached block and meta are refreshed whenever the block state changes
+		Block block = getBlockType();
+		return block instanceof BlockPipe && block.getStateFromMeta(getBlockMetadata()).getValue(BlockPipe.ENABLED);
 	}
 
-	protected ItemStack putIntoInv(ItemStack stack, TileEntity tile, EnumFacing face, boolean simulate) {
-		IItemHandler handler = null;
+	protected IItemHandler getHandler(TileEntity tile, EnumFacing face) {
 		if(tile.hasCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, face))
-			handler = tile.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, face);
+			return tile.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, face);
 		else if(tile instanceof ISidedInventory)
-			handler = new SidedInvWrapper((ISidedInventory) tile, face);
+			return new SidedInvWrapper((ISidedInventory) tile, face);
 		else if(tile instanceof IInventory)
-			handler = new InvWrapper((IInventory) tile);
+			return new InvWrapper((IInventory) tile);
 
-		if(handler != null)
-			return simulate ? ItemStack.EMPTY : ItemHandlerHelper.insertItem(handler, stack, simulate);
-		return stack;
+		return null;
 	}
 
 	@Override
@@ -231,8 +404,14 @@ public class TilePipe extends TileSimpleInventory implements ITickable {
 	public void setInventorySlotContents(int i, @Nonnull ItemStack itemstack) {
 		if(!itemstack.isEmpty()) {
 			EnumFacing side = EnumFacing.VALUES[i];
-			passIn(itemstack, side);
-			sync();
+			PipeItem item = new PipeItem(itemstack, side, world.rand.nextLong());
+			addItem(item, 0);
+			
+			// Items queued mid tick go out with the rest of the queue
+			if(!Pipes.incrementalSync)
+				sync();
+			else if(!iterating && !world.isRemote)
+				sendItemEntered(item);
 		}
 	}
 
@@ -246,6 +425,73 @@ public class TilePipe extends TileSimpleInventory implements ITickable {
 		return false;
 	}
 
+	/**
+	 * Array backed list of the items in a pipe. Ticking compacts it in place instead of
+	 * unlinking nodes.
+	 */
+	public static class PipeItemBuffer implements Iterable<PipeItem> {
+
+		private PipeItem[] items = new PipeItem[4];
+		private int size;
+
+		public int size() {
+			return size;
+		}
+
+		public boolean isEmpty() {
+			return size == 0;
+		}
+
+		public PipeItem get(int i) {
+			return items[i];
+		}
+
+		void set(int i, PipeItem item) {
+			items[i] = item;
+		}
+
+		public void add(PipeItem item) {
+			if(size == items.length)
+				items = Arrays.copyOf(items, size * 2);
+			items[size++] = item;
+		}
+
+		public void addAll(PipeItemBuffer other) {
+			for(int i = 0; i < other.size; i++)
+				add(other.items[i]);
+		}
+
+		void truncate(int newSize) {
+			Arrays.fill(items, newSize, size, null);
+			size = newSize;
+		}
+
+		public void clear() {
+			truncate(0);
+		}
+
+		@Nonnull
+		@Override
+		public Iterator<PipeItem> iterator() {
+			return new Iterator<PipeItem>() {
+				int i = 0;
+
+				@Override
+				public boolean hasNext() {
+					return i < size;
+				}
+
+				@Override
+				public PipeItem next() {
+					if(i >= size)
+						throw new NoSuchElementException();
+					return items[i++];
+				}
+			};
+		}
+
+	}
+
 	public static class PipeItem {
 
 		private static final String TAG_TICKS = "ticksInPipe";
@@ -254,7 +500,8 @@ public class TilePipe extends TileSimpleInventory implements ITickable {
 		private static final String TAG_RNG_SEED = "rngSeed";
 		private static final String TAG_TIME_IN_WORLD = "timeInWorld";
 
-		private static final List<EnumFacing> HORIZONTAL_SIDES_LIST = Arrays.asList(EnumFacing.HORIZONTALS);
+		// Every order the four horizontal sides can be tried in
+		private static final int[][] HORIZONTAL_ORDERS = buildHorizontalOrders();
 
 		public final ItemStack stack;
 		public int ticksInPipe;
@@ -263,6 +510,8 @@ public class TilePipe extends TileSimpleInventory implements ITickable {
 		public long rngSeed;
 		public int timeInWorld = 0;
 		public boolean valid = true;
+		
+		int encodedSize = -1;
 
 		public PipeItem(ItemStack stack, EnumFacing face, long rngSeed) {
 			this.stack = stack;
@@ -287,35 +536,63 @@ public class TilePipe extends TileSimpleInventory implements ITickable {
 		}
 
 		protected EnumFacing getTargetFace(TilePipe pipe) {
-			BlockPos pipePos = pipe.getPos();
-			if(incomingFace != EnumFacing.DOWN && pipe.canFit(stack, pipePos.offset(EnumFacing.DOWN), EnumFacing.UP))
+			if(incomingFace != EnumFacing.DOWN && pipe.canFit(stack, EnumFacing.DOWN))
 				return EnumFacing.DOWN;
 
-			EnumFacing incomingOpposite = incomingFace; // init as same so it doesn't break in the remove later
+			EnumFacing incomingOpposite = incomingFace; // init as same so it doesn't break in the skip later
 			if(incomingFace.getAxis() != Axis.Y) {
 				incomingOpposite = incomingFace.getOpposite();
-				if(pipe.canFit(stack, pipePos.offset(incomingOpposite), incomingFace))
+				if(pipe.canFit(stack, incomingOpposite))
 					return incomingOpposite;
 			}
 
-			List<EnumFacing> sides = new ArrayList<>(HORIZONTAL_SIDES_LIST);
-			sides.remove(incomingFace);
-			sides.remove(incomingOpposite);
-
-			Random rng = new Random(rngSeed);
-			rngSeed = rng.nextLong();
-			Collections.shuffle(sides, rng);
-			for(EnumFacing side : sides) {
-				if(pipe.canFit(stack, pipePos.offset(side), side.getOpposite()))
+			int[] order = HORIZONTAL_ORDERS[(int) ((nextSeed() >>> 1) % HORIZONTAL_ORDERS.length)];
+			for(int horizontalIndex : order) {
+				EnumFacing side = EnumFacing.byHorizontalIndex(horizontalIndex);
+				if(side != incomingFace && side != incomingOpposite && pipe.canFit(stack, side))
 					return side;
 			}
 
-			if(incomingFace != EnumFacing.UP && pipe.canFit(stack, pipePos.offset(EnumFacing.UP), EnumFacing.DOWN))
+			if(incomingFace != EnumFacing.UP && pipe.canFit(stack, EnumFacing.UP))
 				return EnumFacing.UP;
 
 			return null;
 		}
 
+		// xorshift64, steps rngSeed so an item's route stays reproducible from its saved seed
+		private long nextSeed() {
+			long x = rngSeed == 0 ? 0x9E3779B97F4A7C15L : rngSeed;
+			x ^= x << 13;
+			x ^= x >>> 7;
+			x ^= x << 17;
+			rngSeed = x;
+			return x;
+		}
+
+		private static int[][] buildHorizontalOrders() {
+			int[][] orders = new int[24][];
+			int i = 0;
+			for(int a = 0; a < 4; a++)
+				for(int b = 0; b < 4; b++)
+					for(int c = 0; c < 4; c++) {
+						if(a == b || a == c || b == c)
+							continue;
+						orders[i++] = new int[] { a, b, c, 6 - a - b - c };
+					}
+
+			return orders;
+		}
+
+		int getEncodedSize() {
+			if(encodedSize == -1) {
+				NBTTagCompound cmp = new NBTTagCompound();
+				writeToNBT(cmp);
+				encodedSize = TilePipe.getEncodedSize(cmp);
+			}
+			
+			return encodedSize;
+		}
+
 		public float getTimeFract(float pticks) {
 			return (ticksInPipe + pticks) / Pipes.pipeSpeed;
 		}
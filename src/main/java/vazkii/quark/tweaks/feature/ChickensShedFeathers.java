@@ -15,8 +15,8 @@ import net.minecraft.entity.passive.EntityChicken;
 import net.minecraft.init.Items;
 import net.minecraft.item.ItemStack;
 import net.minecraftforge.event.entity.living.LivingDropsEvent;
-import net.minecraftforge.event.entity.living.LivingEvent.LivingUpdateEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import vazkii.quark.base.handler.LivingUpdateHandler;
 import vazkii.quark.base.module.Feature;
 
 public class ChickensShedFeathers extends Feature {
@@ -25,6 +25,10 @@ public class ChickensShedFeathers extends Feature {
 	boolean dropAtLeastOne;
 	int dropFreq;
 
+	public ChickensShedFeathers() {
+		LivingUpdateHandler.register(this, EntityChicken.class, this::onLivingUpdate);
+	}
+
 	@Override
 	public void setupConfig() {
 		chicksDropFeathers = loadPropBool("Chicks drop feathers", "", true);
@@ -32,12 +36,10 @@ public class ChickensShedFeathers extends Feature {
 		dropFreq = loadPropInt("Drop frequency (lower means more)", "", 28000);
 	}
 
-	@SubscribeEvent
-	public void onLivingUpdate(LivingUpdateEvent event) {
-		if(event.getEntity().getEntityWorld().isRemote || !(event.getEntity() instanceof EntityChicken))
+	public void onLivingUpdate(EntityChicken chicken) {
+		if(chicken.getEntityWorld().isRemote)
 			return;
 
-		EntityChicken chicken = (EntityChicken) event.getEntity();
 		if((chicksDropFeathers || !chicken.isChild()) && chicken.getEntityWorld().rand.nextInt(dropFreq) == 0)
 			chicken.dropItem(Items.FEATHER, 1);
 	}
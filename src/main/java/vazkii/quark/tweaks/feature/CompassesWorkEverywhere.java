@@ -4,9 +4,7 @@ import net.minecraft.init.Items;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
-import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
-import net.minecraftforge.fml.common.gameevent.TickEvent.PlayerTickEvent;
+import vazkii.quark.base.handler.InventoryWatchHandler;
 import vazkii.quark.base.module.Feature;
 import vazkii.quark.tweaks.client.item.ClockTimeGetter;
 import vazkii.quark.tweaks.client.item.CompassAngleGetter;
@@ -15,6 +13,11 @@ public class CompassesWorkEverywhere extends Feature {
 
 	public static boolean enableCompassNerf, enableClockNerf, enableNether, enableEnd;
 	
+	public CompassesWorkEverywhere() {
+		InventoryWatchHandler.onTick(this, (ItemStack stack) -> stack.getItem() == Items.COMPASS, CompassAngleGetter::tickCompass);
+		InventoryWatchHandler.onChanged(this, (ItemStack stack) -> stack.getItem() == Items.CLOCK, ClockTimeGetter::tickClock);
+	}
+	
 	@Override
 	public void setupConfig() {
 		enableCompassNerf = loadPropBool("Enable Compass Fix", "Make compasses always point north until crafted", true);
@@ -32,24 +35,6 @@ public class CompassesWorkEverywhere extends Feature {
 			Items.CLOCK.addPropertyOverride(new ResourceLocation("time"), new ClockTimeGetter());
 	}
 	
-	@SubscribeEvent
-	public void onUpdate(PlayerTickEvent event) {
-		if(event.phase == Phase.START) {
-			for(int i = 0; i < event.player.inventory.getSizeInventory(); i++) {
-				ItemStack stack = event.player.inventory.getStackInSlot(i);
-				if(stack.getItem() == Items.COMPASS)
-					CompassAngleGetter.tickCompass(event.player, stack);
-				else if(stack.getItem() == Items.CLOCK)
-					ClockTimeGetter.tickClock(event.player, stack);
-			}
-		}
-	}
-	
-	@Override
-	public boolean hasSubscriptions() {
-		return true;
-	}
-	
 	@Override
 	public boolean requiresMinecraftRestartToEnable() {
 		return true;
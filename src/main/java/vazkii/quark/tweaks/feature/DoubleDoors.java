@@ -14,49 +14,33 @@ import net.minecraft.block.Block;
 import net.minecraft.block.BlockDoor;
 import net.minecraft.block.material.Material;
 import net.minecraft.block.state.IBlockState;
-import net.minecraft.entity.ai.EntityAIBase;
 import net.minecraft.entity.ai.EntityAIOpenDoor;
-import net.minecraft.entity.ai.EntityAITasks.EntityAITaskEntry;
 import net.minecraft.entity.passive.EntityVillager;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
-import net.minecraftforge.event.entity.living.LivingEvent.LivingUpdateEvent;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent;
 import net.minecraftforge.fml.common.eventhandler.Event.Result;
 import net.minecraftforge.fml.common.eventhandler.EventPriority;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import vazkii.quark.base.handler.AITaskHandler;
 import vazkii.quark.base.module.Feature;
 import vazkii.quark.tweaks.ai.EntityAIOpenDoubleDoor;
 
-import java.util.Iterator;
-
 public class DoubleDoors extends Feature {
 
 	boolean allowVillagers = true;
 	
+	public DoubleDoors() {
+		AITaskHandler.replaceTask(this, EntityVillager.class, EntityAIOpenDoubleDoor.class, EntityAIOpenDoor.class, 4, 
+				(EntityVillager villager) -> allowVillagers ? new EntityAIOpenDoubleDoor(villager, true) : null);
+	}
+
 	@Override
 	public void setupConfig() {
 		allowVillagers = loadPropBool("Allow Villagers to use Double Doors", "", allowVillagers);
 	}
 	
-	@SubscribeEvent
-	public void onEntityTick(LivingUpdateEvent event) {
-		if(event.getEntity() instanceof EntityVillager && allowVillagers) {
-			EntityVillager villager = (EntityVillager) event.getEntity();
-			for(Iterator<EntityAITaskEntry> it = villager.tasks.taskEntries.iterator(); it.hasNext();) {
-				EntityAIBase te = it.next().action;
-				if(te instanceof EntityAIOpenDoubleDoor)
-					return;
-				else if(te instanceof EntityAIOpenDoor) {
-					it.remove();
-					villager.tasks.addTask(4, new EntityAIOpenDoubleDoor(villager, true));
-					return;
-				}
-			}
-		}
-	}
-	
 	@SubscribeEvent(priority = EventPriority.LOWEST)
 	public void onPlayerInteract(PlayerInteractEvent.RightClickBlock event) {
 		if(event.getEntityPlayer().isSneaking() || event.isCanceled() || event.getResult() == Result.DENY || event.getUseBlock() == Result.DENY)
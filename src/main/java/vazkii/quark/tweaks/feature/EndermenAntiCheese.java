@@ -25,8 +25,7 @@ import net.minecraft.util.NonNullList;
 import net.minecraft.util.SoundCategory;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
-import net.minecraftforge.event.entity.living.LivingEvent.LivingUpdateEvent;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import vazkii.quark.base.handler.LivingUpdateHandler;
 import vazkii.quark.base.module.Feature;
 
 public class EndermenAntiCheese extends Feature {
@@ -37,6 +36,10 @@ public class EndermenAntiCheese extends Feature {
 	int lowerBound;
 	boolean ignoreMobGriefing;
 	
+	public EndermenAntiCheese() {
+		LivingUpdateHandler.register(this, EntityEnderman.class, this::onUpdate);
+	}
+
 	@Override
 	public void setupConfig() {
 		minimumDifficulty = loadPropInt("Minimum Difficulty", "The minimum difficulty in which this effect should take place. (1: easy, 2: normal, 3: hard)", 3);
@@ -46,29 +49,27 @@ public class EndermenAntiCheese extends Feature {
 		ignoreMobGriefing = loadPropBool("Ignore mobGriefing Gamerule", "", true);
 	}
 
-	@SubscribeEvent
-	public void onUpdate(LivingUpdateEvent event) {
-		if(event.getEntityLiving() instanceof EntityEnderman && event.getEntityLiving().getEntityWorld().getDifficulty().getId() >= minimumDifficulty) {
-			EntityEnderman entity = (EntityEnderman) event.getEntityLiving();
-			
-			if(entity.getHealth() < lowerBound)
-				return;
+	public void onUpdate(EntityEnderman entity) {
+		if(entity.getEntityWorld().getDifficulty().getId() < minimumDifficulty)
+			return;
+		
+		if(entity.getHealth() < lowerBound)
+			return;
 
-			BlockPos ourPos = entity.getPosition().up(2);
-			IBlockState ourState = entity.getEntityWorld().getBlockState(ourPos);
-			if(ourState.getCollisionBoundingBox(entity.getEntityWorld(), ourPos) != null)
-				return;
+		BlockPos ourPos = entity.getPosition().up(2);
+		IBlockState ourState = entity.getEntityWorld().getBlockState(ourPos);
+		if(ourState.getCollisionBoundingBox(entity.getEntityWorld(), ourPos) != null)
+			return;
 
-			EntityLivingBase target = entity.getAttackTarget();
-			if(target instanceof EntityPlayer && target.onGround) {
-				BlockPos pos = target.getPosition().up(2);
-				if(pos.getDistance(ourPos.getX(), ourPos.getY(), ourPos.getZ()) > 5)
-					return;
+		EntityLivingBase target = entity.getAttackTarget();
+		if(target instanceof EntityPlayer && target.onGround) {
+			BlockPos pos = target.getPosition().up(2);
+			if(pos.getDistance(ourPos.getX(), ourPos.getY(), ourPos.getZ()) > 5)
+				return;
 
-				if(oldBehaviour)
-					teleportPlayer(entity, target, pos);
-				else pickupDefense(entity, target, ourPos);
-			}
+			if(oldBehaviour)
+				teleportPlayer(entity, target, pos);
+			else pickupDefense(entity, target, ourPos);
 		}
 	}
 	
@@ -109,9 +110,4 @@ public class EndermenAntiCheese extends Feature {
 		}
 	}
 
-	@Override
-	public boolean hasSubscriptions() {
-		return true;
-	}
-
 }
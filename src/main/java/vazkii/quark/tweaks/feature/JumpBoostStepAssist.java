@@ -16,9 +16,9 @@ import java.util.List;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.init.MobEffects;
 import net.minecraft.potion.PotionEffect;
-import net.minecraftforge.event.entity.living.LivingEvent.LivingUpdateEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.PlayerEvent;
+import vazkii.quark.base.handler.LivingUpdateHandler;
 import vazkii.quark.base.module.Feature;
 
 public class JumpBoostStepAssist extends Feature {
@@ -28,6 +28,10 @@ public class JumpBoostStepAssist extends Feature {
 	int minimumLevel;
 	boolean canToggleWithSneak;
 
+	public JumpBoostStepAssist() {
+		LivingUpdateHandler.register(this, EntityPlayer.class, this::updatePlayerStepStatus);
+	}
+
 	@Override
 	public void setupConfig() {
 		minimumLevel = loadPropInt("Minimum Jump Boost level", "", 2);
@@ -36,25 +40,21 @@ public class JumpBoostStepAssist extends Feature {
 		minimumLevel--;
 	}
 
-	@SubscribeEvent
-	public void updatePlayerStepStatus(LivingUpdateEvent event) {
-		if(event.getEntityLiving() instanceof EntityPlayer) {
-			EntityPlayer player = (EntityPlayer) event.getEntityLiving();
-			String s = playerStr(player);
+	public void updatePlayerStepStatus(EntityPlayer player) {
+		String s = playerStr(player);
 
-			if(playersWithStepup.contains(s)) {
-				if(shouldPlayerHaveStepup(player)) {
-					if(canToggleWithSneak && player.isSneaking())
-						player.stepHeight = 0.50001F; // Not 0.5F because that is the default
-					else player.stepHeight = 1.25F;
-				} else {
-					player.stepHeight = 0.5F;
-					playersWithStepup.remove(s);
-				}
-			} else if(shouldPlayerHaveStepup(player)) {
-				playersWithStepup.add(s);
-				player.stepHeight = 1.25F;
+		if(playersWithStepup.contains(s)) {
+			if(shouldPlayerHaveStepup(player)) {
+				if(canToggleWithSneak && player.isSneaking())
+					player.stepHeight = 0.50001F; // Not 0.5F because that is the default
+				else player.stepHeight = 1.25F;
+			} else {
+				player.stepHeight = 0.5F;
+				playersWithStepup.remove(s);
 			}
+		} else if(shouldPlayerHaveStepup(player)) {
+			playersWithStepup.add(s);
+			player.stepHeight = 1.25F;
 		}
 	}
 
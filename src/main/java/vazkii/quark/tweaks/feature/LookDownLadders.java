@@ -12,24 +12,18 @@ package vazkii.quark.tweaks.feature;
 
 import net.minecraft.entity.MoverType;
 import net.minecraft.entity.player.EntityPlayer;
-import net.minecraftforge.event.entity.living.LivingEvent.LivingUpdateEvent;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import vazkii.quark.base.handler.LivingUpdateHandler;
 import vazkii.quark.base.module.Feature;
 
 public class LookDownLadders extends Feature {
 
-	@SubscribeEvent
-	public void onPlayerTick(LivingUpdateEvent event) {
-		if(event.getEntityLiving() instanceof EntityPlayer) {
-			EntityPlayer player = (EntityPlayer) event.getEntityLiving();
-			if(player.isOnLadder() && !player.isSneaking() && player.moveForward == 0 && player.rotationPitch > 70)
-				player.move(MoverType.SELF, 0, -0.2, 0);
-		}
+	public LookDownLadders() {
+		LivingUpdateHandler.register(this, EntityPlayer.class, this::onPlayerTick);
 	}
 
-	@Override
-	public boolean hasSubscriptions() {
-		return true;
+	public void onPlayerTick(EntityPlayer player) {
+		if(player.isOnLadder() && !player.isSneaking() && player.moveForward == 0 && player.rotationPitch > 70)
+			player.move(MoverType.SELF, 0, -0.2, 0);
 	}
 	
 	@Override
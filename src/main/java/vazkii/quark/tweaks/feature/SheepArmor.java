@@ -16,39 +16,33 @@ import net.minecraft.entity.SharedMonsterAttributes;
 import net.minecraft.entity.ai.attributes.AttributeModifier;
 import net.minecraft.entity.ai.attributes.ModifiableAttributeInstance;
 import net.minecraft.entity.passive.EntitySheep;
-import net.minecraftforge.event.entity.living.LivingEvent.LivingUpdateEvent;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import vazkii.quark.base.handler.LivingUpdateHandler;
 import vazkii.quark.base.module.Feature;
 
 public class SheepArmor extends Feature {
 
 	public static AttributeModifier sheepArmor = new AttributeModifier(UUID.fromString("6e915cea-3f18-485d-a818-373fe4f75f7f"), "sheep_armor", 1.0d, 0);
 
+	public SheepArmor() {
+		LivingUpdateHandler.register(this, EntitySheep.class, this::onUpdate);
+	}
+
 	@Override
 	public void setupConfig() {
 		double armorAmount = loadPropDouble("Sheep Armor Amount", "The amount of armor points to give to a sheep when it is not sheared.", 1.0d);
 		sheepArmor = new AttributeModifier(UUID.fromString("6e915cea-3f18-485d-a818-373fe4f75f7f"), "sheep_armor", armorAmount, 0);
 	}
 
-	@SubscribeEvent
-	public void onUpdate(LivingUpdateEvent event) {
-		if(event.getEntityLiving() instanceof EntitySheep) {
-			EntitySheep entity = (EntitySheep) event.getEntityLiving();
-			ModifiableAttributeInstance armorAttribute = (ModifiableAttributeInstance) entity.getEntityAttribute(SharedMonsterAttributes.ARMOR);
-			boolean hasModifier = armorAttribute.hasModifier(sheepArmor);
-			boolean isSheared = entity.getSheared();
+	public void onUpdate(EntitySheep entity) {
+		ModifiableAttributeInstance armorAttribute = (ModifiableAttributeInstance) entity.getEntityAttribute(SharedMonsterAttributes.ARMOR);
+		boolean hasModifier = armorAttribute.hasModifier(sheepArmor);
+		boolean isSheared = entity.getSheared();
 
-			if (!isSheared && !hasModifier)
-				armorAttribute.applyModifier(sheepArmor);
+		if (!isSheared && !hasModifier)
+			armorAttribute.applyModifier(sheepArmor);
 
-			else if (isSheared && hasModifier)
-				armorAttribute.removeModifier(sheepArmor);
-		}
-	}
-
-	@Override
-	public boolean hasSubscriptions() {
-		return true;
+		else if (isSheared && hasModifier)
+			armorAttribute.removeModifier(sheepArmor);
 	}
 	
 	@Override
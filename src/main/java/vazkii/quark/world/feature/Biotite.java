@@ -16,15 +16,14 @@ import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.crafting.FurnaceRecipes;
 import net.minecraft.util.math.BlockPos;
-import net.minecraftforge.event.entity.living.LivingEvent.LivingUpdateEvent;
 import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.registry.GameRegistry;
 import vazkii.arl.block.BlockModSlab;
 import vazkii.arl.block.BlockModStairs;
 import vazkii.arl.recipe.RecipeHandler;
 import vazkii.arl.util.ProxyRegistry;
+import vazkii.quark.base.handler.LivingUpdateHandler;
 import vazkii.quark.base.module.Feature;
 import vazkii.quark.base.module.GlobalConfig;
 import vazkii.quark.building.feature.VanillaWalls;
@@ -51,6 +50,10 @@ public class Biotite extends Feature {
 	int generationDelay;
 	int clustersPerTick;
 
+	public Biotite() {
+		LivingUpdateHandler.register(this, EntityDragon.class, this::onEntityTick);
+	}
+
 	@Override
 	public void setupConfig() {
 		enableWalls = loadPropBool("Enable walls", "", true) && GlobalConfig.enableVariants;
@@ -97,29 +100,22 @@ public class Biotite extends Feature {
 		FurnaceRecipes.instance().addSmelting(Item.getItemFromBlock(biotite_ore), new ItemStack(biotite), 1);
 	}
 
-	@SubscribeEvent
-	public void onEntityTick(LivingUpdateEvent event) {
-		if(generateByDragon && event.getEntityLiving() instanceof EntityDragon && !event.getEntity().getEntityWorld().isRemote) {
-			EntityDragon dragon = (EntityDragon) event.getEntity();
+	public void onEntityTick(EntityDragon dragon) {
+		if(!generateByDragon || dragon.getEntityWorld().isRemote)
+			return;
 
-			if(dragon.deathTicks > 0 && dragon.deathTicks % generationDelay == 0) {
-				Random rand = dragon.getEntityWorld().rand;
-				BlockPos basePos = dragon.getPosition();
-				basePos = new BlockPos(basePos.getX() - 128, 0, basePos.getZ() -128);
+		if(dragon.deathTicks > 0 && dragon.deathTicks % generationDelay == 0) {
+			Random rand = dragon.getEntityWorld().rand;
+			BlockPos basePos = dragon.getPosition();
+			basePos = new BlockPos(basePos.getX() - 128, 0, basePos.getZ() -128);
 
-				for(int i = 0; i < clustersPerTick; i++) {
-					BlockPos pos = basePos.add(rand.nextInt(256), rand.nextInt(64), rand.nextInt(256));
-					BiotiteGenerator.generator.generate(dragon.getEntityWorld(), rand, pos);
-				}
+			for(int i = 0; i < clustersPerTick; i++) {
+				BlockPos pos = basePos.add(rand.nextInt(256), rand.nextInt(64), rand.nextInt(256));
+				BiotiteGenerator.generator.generate(dragon.getEntityWorld(), rand, pos);
 			}
 		}
 	}
 
-	@Override
-	public boolean hasSubscriptions() {
-		return true;
-	}
-	
 	@Override
 	public boolean requiresMinecraftRestartToEnable() {
 		return true;
@@ -35,10 +35,10 @@ import net.minecraft.world.storage.loot.conditions.LootCondition;
 import net.minecraft.world.storage.loot.functions.LootFunction;
 import net.minecraft.world.storage.loot.functions.LootFunctionManager;
 import net.minecraftforge.event.LootTableLoadEvent;
-import net.minecraftforge.event.entity.living.LivingEvent.LivingUpdateEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import vazkii.arl.util.ItemNBTHelper;
+import vazkii.quark.base.handler.InventoryWatchHandler;
 import vazkii.quark.base.lib.LibMisc;
 import vazkii.quark.base.module.Feature;
 
@@ -59,6 +59,10 @@ public class BuriedTreasure extends Feature {
 
 	int rarity, quality;
 
+	public BuriedTreasure() {
+		InventoryWatchHandler.onChanged(this, (ItemStack stack) -> stack.hasTagCompound() && ItemNBTHelper.getBoolean(stack, TAG_TREASURE_MAP_DELEGATE, false), this::onMapFound);
+	}
+
 	@Override
 	public void setupConfig() {
 		rarity = loadPropInt("Treasure map Rarity", "", 10);
@@ -81,18 +85,9 @@ public class BuriedTreasure extends Feature {
 		}
 	}
 
-	@SubscribeEvent
-	public void onUpdate(LivingUpdateEvent event) {
-		if(event.getEntity() instanceof EntityPlayer) {
-			EntityPlayer player = (EntityPlayer) event.getEntity();
-			for(int i = 0; i < player.inventory.getSizeInventory(); i++) {
-				ItemStack stack = player.inventory.getStackInSlot(i);
-				if(!stack.isEmpty() && stack.hasTagCompound()) {
-					if(ItemNBTHelper.getBoolean(stack, TAG_TREASURE_MAP_DELEGATE, false))
-						makeMap(stack, player.getEntityWorld(), player.getPosition());
-				}
-			}
-		}
+	public void onMapFound(EntityPlayer player, ItemStack stack) {
+		if(makeMap(stack, player.getEntityWorld(), player.getPosition()) == null)
+			InventoryWatchHandler.markDirty(player);
 	}
 
 	public ItemStack makeMap(ItemStack itemstack, World world, BlockPos sourcePos) {
@@ -7,6 +7,7 @@ import net.minecraftforge.fml.common.registry.GameRegistry;
 import vazkii.arl.recipe.RecipeHandler;
 import vazkii.arl.util.ProxyRegistry;
 import vazkii.quark.base.handler.DimensionConfig;
+import vazkii.quark.base.handler.StatsHandler;
 import vazkii.quark.base.module.Feature;
 import vazkii.quark.base.module.ModuleLoader;
 import vazkii.quark.world.block.BlockSpeleothem;
@@ -51,7 +52,9 @@ public class Speleothems extends Feature {
 				limestone_speleothem = new BlockSpeleothem("limestone");
 		}
 
-		GameRegistry.registerWorldGenerator(new SpeleothemGenerator(), 1000);
+		SpeleothemGenerator generator = new SpeleothemGenerator();
+		GameRegistry.registerWorldGenerator(generator, 1000);
+		StatsHandler.register("worldgen.speleothems", generator::getStats);
 	}
 
 	@Override
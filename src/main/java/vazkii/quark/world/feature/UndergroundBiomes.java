@@ -22,6 +22,7 @@ import vazkii.arl.recipe.RecipeHandler;
 import vazkii.arl.util.ProxyRegistry;
 import vazkii.quark.base.handler.BiomeTypeConfigHandler;
 import vazkii.quark.base.handler.DimensionConfig;
+import vazkii.quark.base.handler.StatsHandler;
 import vazkii.quark.base.module.Feature;
 import vazkii.quark.base.module.GlobalConfig;
 import vazkii.quark.base.module.ModuleLoader;
@@ -86,6 +87,8 @@ public class UndergroundBiomes extends Feature {
 		
 		if(elder_prismarine != null)
 			((UndergroundBiomePrismarine) prismarineBiomeGen.info.biome).update();
+		
+		StatsHandler.register("worldgen.underground.pool", UndergroundBiomeGenerator::getPoolStats);
 	}
 	
 	@SuppressWarnings("unchecked")
@@ -188,8 +191,10 @@ public class UndergroundBiomes extends Feature {
 	private UndergroundBiomeGenerator loadUndergrondBiomeInfo(String name, UndergroundBiome biome, int rarity, BiomeDictionary.Type... biomes) {
 		String category = configCategory + "." + name;
 		UndergroundBiomeInfo info = new UndergroundBiomeInfo(category, biome, rarity, biomes);
+		UndergroundBiomeGenerator generator = new UndergroundBiomeGenerator(info);
+		StatsHandler.register("worldgen.sources.underground_" + name.toLowerCase(), generator::getSourceCacheStats);
 
-		return new UndergroundBiomeGenerator(info);
+		return generator;
 	}
 	
 	public static class UndergroundBiomeInfo {
@@ -14,8 +14,8 @@ import java.util.Random;
 import java.util.function.Supplier;
 
 import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
 import net.minecraft.init.Blocks;
-import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.IChunkProvider;
 import net.minecraft.world.gen.IChunkGenerator;
@@ -37,8 +37,8 @@ public class BasaltGenerator extends StoneInfoBasedGenerator implements IWorldGe
 	}
 	
 	@Override
-	public boolean canPlaceBlock(World world, BlockPos pos) {
-		Block block = world.getBlockState(pos).getBlock(); 
+	public boolean canReplaceState(IBlockState stateAt) {
+		Block block = stateAt.getBlock(); 
 		return block == Blocks.STONE || block == Blocks.NETHERRACK;
 	}
 
@@ -0,0 +1,183 @@
+package vazkii.quark.world.world;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * Per-chunk index of the air around a populating chunk, for generators that probe up and down
+ * columns looking for cave floors and ceilings. Covers the 2x2 chunks that are guaranteed to be
+ * loaded while a chunk populates. Each column is read lazily, one 16 block section at a time,
+ * straight from the chunk storage; empty sections are never read at all. Every block is reduced
+ * to a byte code saying whether it's air or a full block, plus a type resolved by the caller.
+ */
+public class CaveAirIndex {
+
+	public static final int AIR = 0;
+	public static final int NOT_FULL = 1;
+	public static final int FULL = 2;
+	
+	private static final byte[] EMPTY_SEGMENT = new byte[16];
+	
+	private final World world;
+	private final int minX, minZ;
+	private final Function<IBlockState, Block> typeResolver;
+	
+	private final Chunk[] chunks = new Chunk[4];
+	private final byte[][][] segments = new byte[32 * 32][][];
+	private final int[] skyFloors = new int[32 * 32];
+	private final List<Block> types = new ArrayList<>();
+	
+	private final MutableBlockPos pos = new MutableBlockPos();
+	
+	private int reads;
+	
+	public CaveAirIndex(World world, int chunkX, int chunkZ, Function<IBlockState, Block> typeResolver) {
+		this.world = world;
+		this.typeResolver = typeResolver;
+		minX = chunkX << 4;
+		minZ = chunkZ << 4;
+		
+		for(int i = 0; i < chunks.length; i++)
+			chunks[i] = world.getChunk(chunkX + (i & 1), chunkZ + (i >> 1));
+		
+		for(int i = 0; i < skyFloors.length; i++)
+			skyFloors[i] = Integer.MIN_VALUE;
+	}
+	
+	public static int getShape(byte code) {
+		return code & 3;
+	}
+	
+	public boolean isAir(BlockPos pos) {
+		return getShape(get(pos.getX(), pos.getY(), pos.getZ())) == AIR;
+	}
+	
+	public Block getType(byte code) {
+		int type = code >> 2;
+		return type == 0 ? null : types.get(type - 1);
+	}
+	
+	public byte get(int x, int y, int z) {
+		if(y < 0 || y >= 256)
+			return AIR;
+		
+		int column = getColumn(x, z);
+		if(column == -1)
+			return encode(x, y, z, world.getBlockState(pos.setPos(x, y, z)));
+		
+		byte[][] columnSegments = segments[column];
+		if(columnSegments == null)
+			columnSegments = segments[column] = new byte[16][];
+		
+		byte[] segment = columnSegments[y >> 4];
+		if(segment == null)
+			segment = columnSegments[y >> 4] = readSegment(x, y >> 4, z);
+		
+		return segment[y & 15];
+	}
+	
+	public boolean canSeeSky(BlockPos pos) {
+		int column = getColumn(pos.getX(), pos.getZ());
+		if(column == -1)
+			return world.canBlockSeeSky(pos);
+		
+		if(skyFloors[column] == Integer.MIN_VALUE)
+			skyFloors[column] = getSkyFloor(pos.getX(), pos.getZ());
+		
+		return pos.getY() >= skyFloors[column];
+	}
+	
+	/**
+	 * Refreshes a block after the caller has changed it in the world.
+	 */
+	public void update(BlockPos pos) {
+		int column = getColumn(pos.getX(), pos.getZ());
+		int y = pos.getY();
+		if(column == -1 || y < 0 || y >= 256 || segments[column] == null)
+			return;
+		
+		byte[] segment = segments[column][y >> 4];
+		if(segment == null)
+			return;
+		
+		if(segment == EMPTY_SEGMENT)
+			segment = segments[column][y >> 4] = new byte[16];
+		segment[y & 15] = encode(pos.getX(), y, pos.getZ(), world.getBlockState(pos));
+	}
+	
+	public int getReads() {
+		return reads;
+	}
+	
+	private int getColumn(int x, int z) {
+		int localX = x - minX;
+		int localZ = z - minZ;
+		if(localX < 0 || localX >= 32 || localZ < 0 || localZ >= 32)
+			return -1;
+		
+		return localZ << 5 | localX;
+	}
+
+	/**
+	 * Mirrors World.canBlockSeeSky, resolved to the lowest Y in the column that can still see
+	 * the sky.
+	 */
+	private int getSkyFloor(int x, int z) {
+		int seaLevel = world.getSeaLevel();
+		int height = world.getChunk(x >> 4, z >> 4).getHeightValue(x & 15, z & 15);
+		if(height > seaLevel)
+			return height;
+
+		for(int y = seaLevel - 1; y > 0; y--) {
+			IBlockState state = world.getBlockState(pos.setPos(x, y, z));
+			if(state.getLightOpacity(world, pos) > 0 && !state.getMaterial().isLiquid())
+				return y;
+		}
+
+		return 0;
+	}
+
+	private byte[] readSegment(int x, int sectionY, int z) {
+		int localX = x - minX;
+		int localZ = z - minZ;
+		Chunk chunk = chunks[(localZ >> 4) << 1 | (localX >> 4)];
+		ExtendedBlockStorage section = chunk.getBlockStorageArray()[sectionY];
+		if(section == Chunk.NULL_BLOCK_STORAGE || section.isEmpty())
+			return EMPTY_SEGMENT;
+		
+		byte[] segment = new byte[16];
+		for(int y = 0; y < 16; y++)
+			segment[y] = encode(x, (sectionY << 4) + y, z, section.get(x & 15, y, z & 15));
+		
+		return segment;
+	}
+	
+	private byte encode(int x, int y, int z, IBlockState state) {
+		reads++;
+		if(state.getBlock().isAir(state, world, pos.setPos(x, y, z)))
+			return AIR;
+		
+		int shape = state.isFullBlock() ? FULL : NOT_FULL;
+		Block type = typeResolver.apply(state);
+		if(type == null)
+			return (byte) shape;
+		
+		int index = types.indexOf(type);
+		if(index == -1) {
+			index = types.size();
+			types.add(type);
+		}
+		
+		return (byte) ((index + 1) << 2 | shape);
+	}
+	
+}
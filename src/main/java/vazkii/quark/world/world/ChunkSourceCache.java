@@ -0,0 +1,153 @@
+package vazkii.quark.world.world;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+/**
+ * Per-world cache of the sources a {@link MultiChunkFeatureGenerator} rolls for each chunk,
+ * so that every neighbour of a chunk can reuse them instead of re-deriving them. The world's
+ * seed derivation is done once, when the cache is created.
+ */
+public class ChunkSourceCache {
+
+	// Rough heap cost of an entry (map node, boxed key, holder and array header) and of each source in it
+	private static final int ENTRY_BYTES = 112;
+	private static final int SOURCE_BYTES = 28;
+	
+	private static final BlockPos[] NO_SOURCES = new BlockPos[0];
+	
+	public final long worldSeed;
+	public final long xSeed;
+	public final long zSeed;
+	
+	private final int capacity;
+	private final Map<Long, Sources> entries;
+	
+	long hits, misses, evictions, bytes;
+	
+	public ChunkSourceCache(long worldSeed, int capacity) {
+		this.worldSeed = worldSeed;
+		this.capacity = capacity;
+
+		Random worldRandom = new Random(worldSeed);
+		xSeed = worldRandom.nextLong() >> 2 + 1;
+		zSeed = worldRandom.nextLong() >> 2 + 1;
+		
+		entries = new LinkedHashMap<Long, Sources>(16, 0.75F, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Sources> eldest) {
+				if(size() > ChunkSourceCache.this.capacity) {
+					evictions++;
+					bytes -= eldest.getValue().getBytes();
+					return true;
+				}
+				
+				return false;
+			}
+		};
+	}
+	
+	public Sources getSources(MultiChunkFeatureGenerator generator, World world, int chunkX, int chunkZ) {
+		Long key = ChunkPos.asLong(chunkX, chunkZ);
+		Sources sources = entries.get(key);
+		if(sources != null) {
+			hits++;
+			return sources;
+		}
+		
+		misses++;
+		long chunkSeed = (xSeed * chunkX + zSeed * chunkZ) ^ worldSeed;
+		StepCountingRandom random = new StepCountingRandom(chunkSeed);
+		BlockPos[] positions = generator.getSourcesInChunk(random, chunkX, chunkZ, world);
+		sources = new Sources(chunkSeed, random.steps, positions.length == 0 ? NO_SOURCES : positions);
+		
+		if(capacity > 0) {
+			bytes += sources.getBytes();
+			entries.put(key, sources);
+		}
+		
+		return sources;
+	}
+	
+	public int size() {
+		return entries.size();
+	}
+	
+	public long getHits() {
+		return hits;
+	}
+	
+	public long getMisses() {
+		return misses;
+	}
+	
+	public long getEvictions() {
+		return evictions;
+	}
+	
+	public long getEstimatedBytes() {
+		return bytes;
+	}
+	
+	public static class Sources {
+		
+		public final BlockPos[] positions;
+		
+		private final long chunkSeed;
+		private final int steps;
+		
+		private Sources(long chunkSeed, int steps, BlockPos[] positions) {
+			this.chunkSeed = chunkSeed;
+			this.steps = steps;
+			this.positions = positions;
+		}
+		
+		/**
+		 * Creates a Random in the same state the chunk's random was in right after its sources were
+		 * rolled, so generation that keeps consuming it stays identical to the uncached path.
+		 */
+		public Random createRandom() {
+			StepCountingRandom random = new StepCountingRandom(chunkSeed);
+			random.skip(steps);
+			return random;
+		}
+		
+		int getBytes() {
+			return ENTRY_BYTES + positions.length * SOURCE_BYTES;
+		}
+		
+	}
+	
+	/**
+	 * Every Random method goes through {@link #next(int)}, and each call advances the seed by
+	 * one step regardless of the bit count, so replaying the step count restores the state.
+	 * This doesn't hold for nextGaussian, which buffers a value, so sources shouldn't use it.
+	 */
+	private static class StepCountingRandom extends Random {
+		
+		int steps;
+		
+		StepCountingRandom(long seed) {
+			super(seed);
+		}
+		
+		@Override
+		protected int next(int bits) {
+			steps++;
+			return super.next(bits);
+		}
+		
+		void skip(int count) {
+			for(int i = 0; i < count; i++)
+				super.next(32);
+			steps = count;
+		}
+		
+	}
+	
+}
@@ -1,16 +1,25 @@
 package vazkii.quark.world.world;
 
+import java.util.Map;
 import java.util.Random;
+import java.util.WeakHashMap;
 import java.util.function.Consumer;
 
+import net.minecraft.block.state.IBlockState;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
 import net.minecraft.world.gen.IChunkGenerator;
 import net.minecraftforge.fml.common.IWorldGenerator;
+import vazkii.quark.base.module.GlobalConfig;
 
 public abstract class MultiChunkFeatureGenerator {
 
+	private final Map<World, ChunkSourceCache> sourceCaches = new WeakHashMap<>();
+	
 	public void generate(int chunkX, int chunkZ, World world) {
 		if(!canGenerate(world, chunkX, chunkZ))
 			return;
@@ -18,25 +27,52 @@ public abstract class MultiChunkFeatureGenerator {
 		int radius = getFeatureRadius();
 		int chunkRadius = (int) Math.ceil((double) radius / 16.0);
 		
-		long worldSeed = modifyWorldSeed(world.getSeed());
-		Random worldRandom = new Random(worldSeed);
-		long xSeed = worldRandom.nextLong() >> 2 + 1;
-		long zSeed = worldRandom.nextLong() >> 2 + 1;
-
-		long ourChunkSeed = (xSeed * chunkX + zSeed * chunkZ) ^ worldSeed;
+		ChunkSourceCache cache = getSourceCache(world);
 
 		for(int x = chunkX - chunkRadius; x <= chunkX + chunkRadius; x++)
 			for(int z = chunkZ - chunkRadius; z <= chunkZ + chunkRadius; z++) {
-				long chunkSeed = (xSeed * x + zSeed * z) ^ worldSeed;
-				Random chunkRandom = new Random(chunkSeed);
-
-				BlockPos[] sources = getSourcesInChunk(chunkRandom, x, z, world);
-				for(BlockPos source : sources)
-					if(source != null && isSourceValid(world, source))
+				ChunkSourceCache.Sources sources = cache.getSources(this, world, x, z);
+				Random chunkRandom = null;
+				
+				for(BlockPos source : sources.positions)
+					if(source != null && isSourceValid(world, source)) {
+						if(chunkRandom == null)
+							chunkRandom = sources.createRandom();
+						
 						generateChunkPart(source, chunkRandom, chunkX, chunkZ, world);
+					}
 			}
 	}
 	
+	public ChunkSourceCache getSourceCache(World world) {
+		ChunkSourceCache cache = sourceCaches.get(world);
+		long worldSeed = modifyWorldSeed(world.getSeed());
+		
+		if(cache == null || cache.worldSeed != worldSeed) {
+			cache = new ChunkSourceCache(worldSeed, GlobalConfig.worldGenSourceCacheSize);
+			sourceCaches.put(world, cache);
+		}
+		
+		return cache;
+	}
+	
+	public String getSourceCacheStats() {
+		int entries = 0;
+		long hits = 0, misses = 0, evictions = 0, bytes = 0;
+		for(ChunkSourceCache cache : sourceCaches.values()) {
+			entries += cache.size();
+			hits += cache.getHits();
+			misses += cache.getMisses();
+			evictions += cache.getEvictions();
+			bytes += cache.getEstimatedBytes();
+		}
+		
+		long lookups = hits + misses;
+		double hitRate = lookups == 0 ? 0 : (double) hits / lookups * 100;
+		return String.format("%d worlds, %d entries (%d per world max), %.1f%% hit rate (%d hits, %d misses), %d evictions, ~%d KB",
+				sourceCaches.size(), entries, GlobalConfig.worldGenSourceCacheSize, hitRate, hits, misses, evictions, bytes / 1024);
+	}
+	
 	public long modifyWorldSeed(long seed) {
 		return seed;
 	}
@@ -73,10 +109,102 @@ public abstract class MultiChunkFeatureGenerator {
 					func.accept(first.add(x, y, z));
 	}
 	
+	/**
+	 * Column-batched variant of {@link #forEachChunkBlock} that reads (and optionally writes) the
+	 * {@link ExtendedBlockStorage} sections of the chunks covered by the generation area directly.
+	 * A single mutable cursor is handed to the visitor, so it must be copied with
+	 * {@link BlockPos#toImmutable()} if it's kept around. Sections that are entirely air are skipped.
+	 * <br><br>
+	 * If the visitor returns a state other than null or the current one, it's written straight into
+	 * the section, which skips lighting, heightmap and neighbour updates. Only use that for swaps
+	 * between blocks with the same light and opacity values (stone types and so on).
+	 */
+	public void forEachChunkSectionBlock(World world, int chunkX, int chunkZ, int minY, int maxY, ISectionBlockVisitor visitor) {
+		forEachChunkSectionBlock(world, chunkX, chunkZ, minY, maxY, new MutableBlockPos(), visitor);
+	}
+	
+	/**
+	 * Same as above, but moves the cursor passed in instead of making a new one.
+	 */
+	public void forEachChunkSectionBlock(World world, int chunkX, int chunkZ, int minY, int maxY, MutableBlockPos pos, ISectionBlockVisitor visitor) {
+		int startX = getAreaStart(chunkX);
+		int startZ = getAreaStart(chunkZ);
+		forEachSectionBlockInBox(world, startX, minY, startZ, startX + 16, maxY, startZ + 16, pos, visitor);
+	}
+	
+	/**
+	 * Same as {@link #forEachChunkSectionBlock}, but only visits the [min, max) box passed in, which
+	 * should already be clipped to the chunk's generation area.
+	 */
+	public void forEachSectionBlockInBox(World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, ISectionBlockVisitor visitor) {
+		forEachSectionBlockInBox(world, minX, minY, minZ, maxX, maxY, maxZ, new MutableBlockPos(), visitor);
+	}
+	
+	public void forEachSectionBlockInBox(World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, MutableBlockPos pos, ISectionBlockVisitor visitor) {
+		minY = Math.max(1, minY);
+		maxY = Math.min(255, maxY);
+		if(minX >= maxX || minY >= maxY || minZ >= maxZ)
+			return;
+
+		for(int cx = minX >> 4; cx <= (maxX - 1) >> 4; cx++)
+			for(int cz = minZ >> 4; cz <= (maxZ - 1) >> 4; cz++) {
+				Chunk chunk = world.getChunk(cx, cz);
+				ExtendedBlockStorage[] sections = chunk.getBlockStorageArray();
+				
+				int baseX = cx << 4;
+				int baseZ = cz << 4;
+				int minLocalX = Math.max(minX, baseX) - baseX;
+				int maxLocalX = Math.min(maxX, baseX + 16) - baseX;
+				int minLocalZ = Math.max(minZ, baseZ) - baseZ;
+				int maxLocalZ = Math.min(maxZ, baseZ + 16) - baseZ;
+				boolean dirty = false;
+
+				for(int sy = minY >> 4; sy <= (maxY - 1) >> 4; sy++) {
+					ExtendedBlockStorage section = sections[sy];
+					if(section == Chunk.NULL_BLOCK_STORAGE || section.isEmpty())
+						continue;
+
+					int baseY = sy << 4;
+					int minLocalY = Math.max(minY, baseY) - baseY;
+					int maxLocalY = Math.min(maxY, baseY + 16) - baseY;
+
+					for(int y = minLocalY; y < maxLocalY; y++)
+						for(int z = minLocalZ; z < maxLocalZ; z++)
+							for(int x = minLocalX; x < maxLocalX; x++) {
+								IBlockState state = section.get(x, y, z);
+								pos.setPos(baseX + x, baseY + y, baseZ + z);
+
+								IBlockState newState = visitor.visit(pos, state);
+								if(newState != null && newState != state) {
+									section.set(x, y, z, newState);
+									dirty = true;
+								}
+							}
+				}
+
+				if(dirty)
+					chunk.markDirty();
+			}
+	}
+	
+	public int getAreaStart(int chunkCoord) {
+		return chunkCoord * 16 + (shouldOffset() ? 8 : 0);
+	}
+	
 	public boolean isInsideChunk(BlockPos pos, int chunkX, int chunkZ) {
 		int x = chunkX * 16;
 		int z = chunkZ * 16;
 		return pos.getX() > x && pos.getZ() > z && pos.getX() < (x + 16) && pos.getZ() < (z + 16); 
 	}
 
+	@FunctionalInterface
+	public interface ISectionBlockVisitor {
+
+		/**
+		 * @return the state to write at this position, or null to leave it alone
+		 */
+		IBlockState visit(MutableBlockPos pos, IBlockState state);
+
+	}
+
 }
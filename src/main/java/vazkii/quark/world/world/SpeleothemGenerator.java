@@ -20,6 +20,8 @@ import java.util.Random;
 
 public class SpeleothemGenerator implements IWorldGenerator {
 
+	private long chunks, blockReads;
+
 	@Override
 	public void generate(Random random, int chunkX, int chunkZ, World world, IChunkGenerator chunkGenerator, IChunkProvider chunkProvider) {
 		if(!Speleothems.dimensionConfig.canSpawnHere(world))
@@ -42,51 +44,62 @@ public class SpeleothemGenerator implements IWorldGenerator {
 			innerTries = Speleothems.netherClusterCount;
 		}
 		
-		if(upperBound > 0)
+		if(upperBound > 0) {
+			CaveAirIndex index = new CaveAirIndex(world, chunkX, chunkZ, this::getSpeleothemType);
+			boolean nether = world.provider.isNether();
+			
 			for(int i = 0; i < tries; i++) {
 				BlockPos target = new BlockPos(x + random.nextInt(spread), random.nextInt(upperBound) + offset, z + random.nextInt(spread));
-				if(placeSpeleothemCluster(random, world, target, innerSpread, innerTries))
+				if(placeSpeleothemCluster(random, world, index, nether, target, innerSpread, innerTries))
 					i++;
 			}
+			
+			blockReads += index.getReads();
+			chunks++;
+		}
 	}
 	
-	private boolean placeSpeleothemCluster(Random random, World world, BlockPos pos, int spread, int tries) {
-		if(!findAndPlaceSpeleothem(random, world, pos))
+	private boolean placeSpeleothemCluster(Random random, World world, CaveAirIndex index, boolean nether, BlockPos pos, int spread, int tries) {
+		if(!findAndPlaceSpeleothem(random, world, index, nether, pos))
 			return false;
 		
 		for(int i = 0; i < tries; i++) {
 			BlockPos target = pos.add(random.nextInt(spread * 2 + 1) - spread, random.nextInt(spread + 1) - spread / 1, random.nextInt(spread * 2 + 1) - spread);
-			findAndPlaceSpeleothem(random, world, target);
+			findAndPlaceSpeleothem(random, world, index, nether, target);
 		}
 		
 		return true;
 	}
 	
-	private boolean findAndPlaceSpeleothem(Random random, World world, BlockPos pos) {
-		if(!world.isAirBlock(pos))
+	private boolean findAndPlaceSpeleothem(Random random, World world, CaveAirIndex index, boolean nether, BlockPos pos) {
+		if(!index.isAir(pos))
 			return false;
 		
-		int off = world.provider.isNether() ? -1000 : 0;
+		int off = nether ? -1000 : 0;
 		boolean up = random.nextBoolean();
-		EnumFacing diff = (up ? EnumFacing.UP : EnumFacing.DOWN);
+		int diff = up ? 1 : -1;
 		
-		if(!up && world.canBlockSeeSky(pos))
+		if(!up && index.canSeeSky(pos))
  			return false;
 		
-		IBlockState stateAt = null;
+		// Walk the indexed column to the first full block instead of probing the world
+		int x = pos.getX();
+		int y = pos.getY();
+		int z = pos.getZ();
+		byte code;
 		do {
-			pos = pos.offset(diff);
-			stateAt = world.getBlockState(pos);
+			y += diff;
+			code = index.get(x, y, z);
 			off++;
-		} while(pos.getY() > 4 && pos.getY() < 200 && !stateAt.isFullBlock() && off < 10);
+		} while(y > 4 && y < 200 && CaveAirIndex.getShape(code) != CaveAirIndex.FULL && off < 10);
 		
-		Block type = getSpeleothemType(stateAt);
-		placeSpeleothem(random, world, pos, type, !up);
+		Block type = index.getType(code);
+		placeSpeleothem(random, world, index, new BlockPos(x, y, z), type, !up);
 		
 		return true;
 	}
 		
-	private void placeSpeleothem(Random random, World world, BlockPos pos, Block type, boolean up) {
+	private void placeSpeleothem(Random random, World world, CaveAirIndex index, BlockPos pos, Block type, boolean up) {
 		if(type == null)
 			return;
 		
@@ -97,15 +110,20 @@ public class SpeleothemGenerator implements IWorldGenerator {
 		
 		for(int i = 0; i < size; i++) {
 			pos = pos.offset(diff);
-			if(!world.isAirBlock(pos))
+			if(!index.isAir(pos))
 				return;
 			
 			EnumSize sizeType = EnumSize.values()[size - i - 1];
 			IBlockState targetBlock = type.getDefaultState().withProperty(BlockSpeleothem.SIZE, sizeType);
 			world.setBlockState(pos, targetBlock);
+			index.update(pos);
 		}
 	}
 	
+	public String getStats() {
+		return String.format("%d chunks, %d block reads per chunk", chunks, chunks == 0 ? 0 : blockReads / chunks);
+	}
+	
 	@SuppressWarnings("incomplete-switch")
 	private Block getSpeleothemType(IBlockState state) {
 		Block block = state.getBlock();
@@ -6,9 +6,11 @@ import java.util.function.Supplier;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.init.Blocks;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.World;
 import net.minecraft.world.biome.Biome;
 import vazkii.quark.base.handler.BiomeTypeConfigHandler;
+import vazkii.quark.base.handler.StatsHandler;
 import vazkii.quark.world.feature.RevampStoneGen.StoneInfo;
 
 public class StoneInfoBasedGenerator extends MultiChunkFeatureGenerator {
@@ -19,12 +21,20 @@ public class StoneInfoBasedGenerator extends MultiChunkFeatureGenerator {
 	IBlockState state;
 	long seedXor;
 	
+	private boolean[] biomeMask;
+	private StoneInfo maskInfo;
+	
+	long chunks, culledSources, visitedBlocks, fullScanBlocks;
+	
 	public StoneInfoBasedGenerator(Supplier<StoneInfo> infoSupplier, IBlockState state, String name) {
 		this.infoSupplier = infoSupplier;
 		this.name = name;
 
 		this.state = state;
 		seedXor = name.hashCode();
+		
+		StatsHandler.register("worldgen.sources." + name, this::getSourceCacheStats);
+		StatsHandler.register("worldgen.culling." + name, this::getCullingStats);
 	}
 
 	@Override
@@ -39,7 +49,13 @@ public class StoneInfoBasedGenerator extends MultiChunkFeatureGenerator {
 	
 	@Override
 	public boolean isSourceValid(World world, BlockPos pos) {
-		return canGenerateInBiome(world.getBiome(pos));
+		StoneInfo info = infoSupplier.get();
+		if(biomeMask == null || maskInfo != info) {
+			biomeMask = BiomeTypeConfigHandler.buildBiomeMask(this::canGenerateInBiome);
+			maskInfo = info;
+		}
+		
+		return BiomeTypeConfigHandler.isInBiomeMask(biomeMask, world, pos);
 	}
 	
 	@Override
@@ -53,17 +69,67 @@ public class StoneInfoBasedGenerator extends MultiChunkFeatureGenerator {
 		return info.clusterSize;
 	}
 
+	@Override
+	public void generate(int chunkX, int chunkZ, World world) {
+		if(canGenerate(world, chunkX, chunkZ))
+			chunks++;
+		
+		super.generate(chunkX, chunkZ, world);
+	}
+
 	@Override
 	public void generateChunkPart(BlockPos src, Random random, int chunkX, int chunkZ, World world) {
 		StoneInfo info = infoSupplier.get();
-		forEachChunkBlock(chunkX, chunkZ, info.lowerBound - info.clusterSize, info.upperBound + info.clusterSize, (pos) -> {
-			if(canPlaceBlock(world, pos) && pos.distanceSq(src) < (info.clusterSize * info.clusterSize))
-				world.setBlockState(pos, state, 0);
+		int radius = info.clusterSize;
+		int radiusSq = radius * radius;
+		
+		int startX = getAreaStart(chunkX);
+		int startZ = getAreaStart(chunkZ);
+		int lowerY = Math.max(1, info.lowerBound - radius);
+		int upperY = Math.min(255, info.upperBound + radius);
+		fullScanBlocks += 256 * Math.max(0, upperY - lowerY);
+		
+		// Clip the cluster's bounding box (every block with distanceSq < radius^2) to this chunk's area
+		int minX = Math.max(startX, src.getX() - radius + 1);
+		int maxX = Math.min(startX + 16, src.getX() + radius);
+		int minY = Math.max(lowerY, src.getY() - radius + 1);
+		int maxY = Math.min(upperY, src.getY() + radius);
+		int minZ = Math.max(startZ, src.getZ() - radius + 1);
+		int maxZ = Math.min(startZ + 16, src.getZ() + radius);
+		
+		if(minX >= maxX || minY >= maxY || minZ >= maxZ || !sphereTouchesBox(src, radiusSq, minX, minY, minZ, maxX, maxY, maxZ)) {
+			culledSources++;
+			return;
+		}
+		
+		visitedBlocks += (long) (maxX - minX) * (maxY - minY) * (maxZ - minZ);
+		
+		// Stone types share light and opacity values, so writing to the sections directly is safe here
+		forEachSectionBlockInBox(world, minX, minY, minZ, maxX, maxY, maxZ, (pos, stateAt) -> {
+			if(canReplaceState(stateAt) && pos.distanceSq(src) < radiusSq)
+				return state;
+			return null;
 		});
 	}
 	
+	private static boolean sphereTouchesBox(BlockPos src, int radiusSq, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+		long dx = src.getX() - MathHelper.clamp(src.getX(), minX, maxX - 1);
+		long dy = src.getY() - MathHelper.clamp(src.getY(), minY, maxY - 1);
+		long dz = src.getZ() - MathHelper.clamp(src.getZ(), minZ, maxZ - 1);
+		return dx * dx + dy * dy + dz * dz < radiusSq;
+	}
+	
+	public String getCullingStats() {
+		return String.format("%d chunks, %d sources culled, %d blocks visited per chunk (%d without culling)",
+				chunks, culledSources, chunks == 0 ? 0 : visitedBlocks / chunks, chunks == 0 ? 0 : fullScanBlocks / chunks);
+	}
+	
 	public boolean canPlaceBlock(World world, BlockPos pos) {
-		return world.getBlockState(pos).getBlock() == Blocks.STONE;
+		return canReplaceState(world.getBlockState(pos));
+	}
+	
+	public boolean canReplaceState(IBlockState stateAt) {
+		return stateAt.getBlock() == Blocks.STONE;
 	}
 
 	@Override
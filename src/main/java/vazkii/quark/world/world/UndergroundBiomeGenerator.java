@@ -1,20 +1,23 @@
 package vazkii.quark.world.world;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Random;
 
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldServer;
 import net.minecraft.world.biome.Biome;
 import vazkii.quark.base.handler.BiomeTypeConfigHandler;
 import vazkii.quark.world.feature.UndergroundBiomes.UndergroundBiomeInfo;
+import vazkii.quark.world.world.underground.UndergroundBiome;
 
 public class UndergroundBiomeGenerator extends MultiChunkFeatureGenerator {
 
@@ -22,6 +25,12 @@ public class UndergroundBiomeGenerator extends MultiChunkFeatureGenerator {
 	
 	long seedXor;
 	
+	private static final int MAX_POOLED = 16;
+	private static final Deque<UndergroundBiomeGenerationContext> contextPool = new ArrayDeque<>();
+	private static long contextsCreated, contextsReused;
+	
+	private boolean[] biomeMask;
+	
 	public UndergroundBiomeGenerator(UndergroundBiomeInfo info) {
 		this.info = info;
 		
@@ -64,65 +73,151 @@ public class UndergroundBiomeGenerator extends MultiChunkFeatureGenerator {
 	
 	@Override
 	public boolean isSourceValid(World world, BlockPos pos) {
-		Biome biome = world.getBiome(pos);
+		if(biomeMask == null)
+			biomeMask = BiomeTypeConfigHandler.buildBiomeMask(this::canGenerateInBiome);
+		
+		return BiomeTypeConfigHandler.isInBiomeMask(biomeMask, world, pos);
+	}
+	
+	public boolean canGenerateInBiome(Biome biome) {
 		return BiomeTypeConfigHandler.biomeTypeIntersectCheck(info.types, biome) && info.biome.isValidBiome(biome);
 	}
 	
 	public void apply(World world, BlockPos center, Random random, int chunkX, int chunkZ, int radiusX, int radiusY, int radiusZ) {
-		int centerX = center.getX();
-		int centerY = center.getY();
-		int centerZ = center.getZ();
-
-		double radiusX2 = radiusX * radiusX;
-		double radiusY2 = radiusY * radiusY;
-		double radiusZ2 = radiusZ * radiusZ;
-		
-		UndergroundBiomeGenerationContext context = new UndergroundBiomeGenerationContext();
-
-		forEachChunkBlock(chunkX, chunkZ, center.getY() - radiusY, center.getY() + radiusY, (pos) -> {
-			int x = pos.getX() - center.getX();
-			int y = pos.getY() - center.getY();
-			int z = pos.getZ() - center.getZ();
-			
-			double distX = x * x;
-			double distY = y * y;
-			double distZ = z * z;
-			boolean inside = distX / radiusX2 + distY / radiusY2 + distZ / radiusZ2 <= 1;
+		UndergroundBiomeGenerationContext context = obtainContext();
+		try {
+			context.begin(world, info.biome, center, radiusX, radiusY, radiusZ);
+			forEachChunkSectionBlock(world, chunkX, chunkZ, center.getY() - radiusY, center.getY() + radiusY, context.cursor, context);
 			
-			if(inside)
-				info.biome.fill(world, center.add(x, y, z), context);
-		});
-
-		context.floorList.forEach(pos -> info.biome.finalFloorPass(world, pos));
-		context.ceilingList.forEach(pos -> info.biome.finalCeilingPass(world, pos));
-		context.wallMap.keySet().forEach(pos -> info.biome.finalWallPass(world, pos));
-		context.insideList.forEach(pos -> info.biome.finalInsidePass(world, pos));
+			finish(world, context, info.biome.hasDungeon() && world instanceof WorldServer && random.nextFloat() < info.biome.dungeonChance);
+		} finally {
+			releaseContext(context);
+		}
+	}
+	
+	private void finish(World world, UndergroundBiomeGenerationContext context, boolean dungeon) {
+		for(int i = 0; i < context.floorList.size(); i++)
+			info.biome.finalFloorPass(world, BlockPos.fromLong(context.floorList.getLong(i)));
+		for(int i = 0; i < context.ceilingList.size(); i++)
+			info.biome.finalCeilingPass(world, BlockPos.fromLong(context.ceilingList.getLong(i)));
+		for(int i = 0; i < context.wallList.size(); i++)
+			info.biome.finalWallPass(world, BlockPos.fromLong(context.wallList.getLong(i)));
+		for(int i = 0; i < context.insideList.size(); i++)
+			info.biome.finalInsidePass(world, BlockPos.fromLong(context.insideList.getLong(i)));
 		
-		if(info.biome.hasDungeon() && world instanceof WorldServer && random.nextFloat() < info.biome.dungeonChance) {
-			List<BlockPos> candidates = new ArrayList<>(context.wallMap.keySet());
-			candidates.removeIf(pos -> {
-				BlockPos down = pos.down();
+		if(dungeon) {
+			IntArrayList candidates = context.candidates;
+			for(int i = 0; i < context.wallList.size(); i++) {
+				BlockPos down = BlockPos.fromLong(context.wallList.getLong(i)).down();
 				IBlockState state = world.getBlockState(down);
-				return info.biome.isWall(world, down, state) || state.getBlock().isAir(state, world, down);
-			});
+				if(!info.biome.isWall(world, down, state) && !state.getBlock().isAir(state, world, down))
+					candidates.add(i);
+			}
 			
 			if(!candidates.isEmpty()) {
-				BlockPos pos = candidates.get(world.rand.nextInt(candidates.size()));
+				int index = candidates.getInt(world.rand.nextInt(candidates.size()));
 				
-				EnumFacing border = context.wallMap.get(pos);
+				EnumFacing border = context.getWallBorder(index);
 				if(border != null)
-					info.biome.spawnDungeon((WorldServer) world, pos, border);
+					info.biome.spawnDungeon((WorldServer) world, BlockPos.fromLong(context.wallList.getLong(index)), border);
 			}
 		}
 	}
 	
-	public static class UndergroundBiomeGenerationContext {
+	public static UndergroundBiomeGenerationContext obtainContext() {
+		UndergroundBiomeGenerationContext context = contextPool.poll();
+		if(context != null) {
+			contextsReused++;
+			return context;
+		}
+		
+		contextsCreated++;
+		return new UndergroundBiomeGenerationContext();
+	}
+	
+	public static void releaseContext(UndergroundBiomeGenerationContext context) {
+		context.clear();
+		if(contextPool.size() < MAX_POOLED)
+			contextPool.push(context);
+	}
+	
+	public static String getPoolStats() {
+		return String.format("contexts: %d created, %d reused, %d pooled", contextsCreated, contextsReused, contextPool.size());
+	}
+	
+	/**
+	 * Positions are stored packed with {@link BlockPos#toLong()}. Walls keep their border side in
+	 * a parallel list, as a horizontal index or -1 if there's none. Instances are pooled, so get
+	 * them from {@link #obtainContext()} and hand them back with {@link #releaseContext}. While a
+	 * biome is being applied, the context is also the visitor that fills it, so nothing has to be
+	 * captured per application. Generation can cascade into another application before this one
+	 * is done, which is why each one takes its own context rather than sharing one.
+	 */
+	public static class UndergroundBiomeGenerationContext implements ISectionBlockVisitor {
+		
+		public final LongArrayList floorList = new LongArrayList();
+		public final LongArrayList ceilingList = new LongArrayList();
+		public final LongArrayList insideList = new LongArrayList();
+		
+		public final LongArrayList wallList = new LongArrayList();
+		public final ByteArrayList wallBorders = new ByteArrayList();
+		
+		final IntArrayList candidates = new IntArrayList();
+		final MutableBlockPos cursor = new MutableBlockPos();
+		
+		private World world;
+		private UndergroundBiome biome;
+		private int centerX, centerY, centerZ;
+		private double radiusX2, radiusY2, radiusZ2;
+		
+		void begin(World world, UndergroundBiome biome, BlockPos center, int radiusX, int radiusY, int radiusZ) {
+			this.world = world;
+			this.biome = biome;
+			centerX = center.getX();
+			centerY = center.getY();
+			centerZ = center.getZ();
+			radiusX2 = radiusX * radiusX;
+			radiusY2 = radiusY * radiusY;
+			radiusZ2 = radiusZ * radiusZ;
+		}
+		
+		@Override
+		public IBlockState visit(MutableBlockPos pos, IBlockState state) {
+			int x = pos.getX() - centerX;
+			int y = pos.getY() - centerY;
+			int z = pos.getZ() - centerZ;
+			
+			double distX = x * x;
+			double distY = y * y;
+			double distZ = z * z;
+			boolean inside = distX / radiusX2 + distY / radiusY2 + distZ / radiusZ2 <= 1;
+			
+			if(inside)
+				biome.fill(world, pos.toImmutable(), state, this);
+			
+			return null;
+		}
+		
+		public void addWall(BlockPos pos, EnumFacing border) {
+			wallList.add(pos.toLong());
+			wallBorders.add(border == null ? -1 : (byte) border.getHorizontalIndex());
+		}
 		
-		public List<BlockPos> floorList = new LinkedList<>();
-		public List<BlockPos> ceilingList = new LinkedList<>();
-		public List<BlockPos> insideList = new LinkedList<>();
+		public EnumFacing getWallBorder(int index) {
+			byte border = wallBorders.getByte(index);
+			return border == -1 ? null : EnumFacing.byHorizontalIndex(border);
+		}
 		
-		public Map<BlockPos, EnumFacing> wallMap = new HashMap<>();
+		public void clear() {
+			floorList.clear();
+			ceilingList.clear();
+			insideList.clear();
+			wallList.clear();
+			wallBorders.clear();
+			candidates.clear();
+			world = null;
+			biome = null;
+		}
 		
 	}
 }
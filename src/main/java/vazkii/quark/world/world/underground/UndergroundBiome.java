@@ -34,21 +34,24 @@ public abstract class UndergroundBiome {
 	};
 
 	public void fill(World world, BlockPos pos, UndergroundBiomeGenerationContext context) {
-		IBlockState state = world.getBlockState(pos);
+		fill(world, pos, world.getBlockState(pos), context);
+	}
+	
+	public void fill(World world, BlockPos pos, IBlockState state, UndergroundBiomeGenerationContext context) {
 		if(state.getBlockHardness(world, pos) == -1 || world.canBlockSeeSky(pos))
 			return;
 
 		if(isFloor(world, pos, state)) {
-			context.floorList.add(pos);
+			context.floorList.add(pos.toLong());
 			fillFloor(world, pos, state);
 		} else if(isCeiling(world, pos, state)) {
-			context.ceilingList.add(pos);
+			context.ceilingList.add(pos.toLong());
 			fillCeiling(world, pos, state);
 		} else if(isWall(world, pos, state)) {
-			context.wallMap.put(pos, getBorderSide(world, pos));
+			context.addWall(pos, getBorderSide(world, pos));
 			fillWall(world, pos, state);
 		} else if(isInside(world, pos, state)) {
-			context.insideList.add(pos);
+			context.insideList.add(pos.toLong());
 			fillInside(world, pos, state);
 		}
 	}
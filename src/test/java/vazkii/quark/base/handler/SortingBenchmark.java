@@ -0,0 +1,146 @@
+package vazkii.quark.base.handler;
+
+import net.minecraft.block.Block;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.init.Items;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemStackHandler;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Sorts large item handlers, the size of what storage mods expose through SlotItemHandler, and
+ * reports how long each sort takes, merging included. Every sort has to keep exactly the items it
+ * was given, with no more than one partial stack of each kind left over.
+ *
+ * Run through gradlew benchmark, not the regular test task. Sizes can be changed through system
+ * properties, e.g. gradlew benchmark -Dquark.sortbench.slots=8192
+ */
+public class SortingBenchmark {
+
+	private static final int SLOTS = Integer.getInteger("quark.sortbench.slots", 2048);
+	private static final int RUNS = Integer.getInteger("quark.sortbench.runs", 50);
+	private static final int WARMUP_RUNS = Integer.getInteger("quark.sortbench.warmup", 10);
+	private static final long SEED = Long.getLong("quark.sortbench.seed", 0L);
+
+	private static final List<ItemStack> kinds = new ArrayList<>();
+
+	@BeforeClass
+	public static void setup() {
+		Bootstrap.register();
+
+		for(Item item : new Item[] { Items.IRON_INGOT, Items.COAL, Items.REDSTONE, Items.ENDER_PEARL, Items.SNOWBALL, Items.APPLE, Items.BREAD, Items.COOKED_BEEF,
+				Items.DIAMOND_PICKAXE, Items.IRON_SHOVEL, Items.STONE_AXE, Items.IRON_SWORD, Items.BOW, Items.IRON_CHESTPLATE, Items.DIAMOND_BOOTS })
+			kinds.add(new ItemStack(item));
+
+		for(Block block : new Block[] { Blocks.COBBLESTONE, Blocks.DIRT, Blocks.LOG, Blocks.TORCH })
+			kinds.add(new ItemStack(block));
+
+		for(int meta = 0; meta < 16; meta++)
+			kinds.add(new ItemStack(Blocks.WOOL, 1, meta));
+
+		// Same item, different tags, so merging has to tell them apart by more than item and meta
+		for(int i = 0; i < 8; i++)
+			kinds.add(new ItemStack(Items.PAPER).setStackDisplayName("Note " + i));
+	}
+
+	@Test
+	public void largeScatteredHandler() {
+		run("scattered", SLOTS, 0.75F, false, false);
+	}
+
+	@Test
+	public void largeFragmentedHandler() {
+		run("fragmented", SLOTS, 1F, true, false);
+	}
+
+	@Test
+	public void largeSortedHandler() {
+		run("already sorted", SLOTS, 0.75F, false, true);
+	}
+
+	/**
+	 * @param fill the share of slots that get a stack
+	 * @param fragmented if true, stacks are small so most of the work is merging
+	 * @param presorted if true, every run starts from the result of the sort before it
+	 */
+	private static void run(String name, int slots, float fill, boolean fragmented, boolean presorted) {
+		Random random = new Random(SEED);
+		ItemStackHandler handler = new ItemStackHandler(slots);
+
+		long nanos = 0, maxNanos = 0;
+		for(int run = 0; run < WARMUP_RUNS + RUNS; run++) {
+			if(!presorted || run == 0)
+				fill(handler, random, fill, fragmented);
+
+			Map<String, Integer> before = count(handler);
+
+			long start = System.nanoTime();
+			SortingHandler.sortInventory(handler);
+			long time = System.nanoTime() - start;
+
+			if(run >= WARMUP_RUNS) {
+				nanos += time;
+				maxNanos = Math.max(maxNanos, time);
+			}
+
+			assertEquals("Items were lost or duplicated", before, count(handler));
+			assertMerged(handler);
+		}
+
+		System.out.println(String.format("%s (%d slots, %d runs): %.3f ms/sort avg, %.3f ms worst, %.2f us/slot",
+				name, slots, RUNS, nanos / 1e6 / RUNS, maxNanos / 1e6, nanos / 1e3 / RUNS / slots));
+	}
+
+	private static void fill(ItemStackHandler handler, Random random, float fill, boolean fragmented) {
+		for(int i = 0; i < handler.getSlots(); i++) {
+			ItemStack stack = ItemStack.EMPTY;
+			if(random.nextFloat() < fill) {
+				stack = kinds.get(random.nextInt(kinds.size())).copy();
+				int max = stack.getMaxStackSize();
+				stack.setCount(fragmented ? 1 + random.nextInt(Math.max(1, max / 8)) : 1 + random.nextInt(max));
+			}
+
+			handler.setStackInSlot(i, stack);
+		}
+	}
+
+	private static Map<String, Integer> count(IItemHandler handler) {
+		Map<String, Integer> counts = new HashMap<>();
+		for(int i = 0; i < handler.getSlots(); i++) {
+			ItemStack stack = handler.getStackInSlot(i);
+			if(!stack.isEmpty())
+				counts.merge(getKind(stack), stack.getCount(), Integer::sum);
+		}
+
+		return counts;
+	}
+
+	private static void assertMerged(IItemHandler handler) {
+		Set<String> partial = new HashSet<>();
+		for(int i = 0; i < handler.getSlots(); i++) {
+			ItemStack stack = handler.getStackInSlot(i);
+			if(!stack.isEmpty() && stack.getCount() < stack.getMaxStackSize())
+				assertTrue("More than one partial stack of " + getKind(stack), partial.add(getKind(stack)));
+		}
+	}
+
+	private static String getKind(ItemStack stack) {
+		return stack.getItem().getRegistryName() + "@" + stack.getItemDamage() + (stack.hasTagCompound() ? stack.getTagCompound().toString() : "");
+	}
+
+}
@@ -0,0 +1,95 @@
+package vazkii.quark.oddities.tile;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.Entity;
+import net.minecraft.init.Blocks;
+import net.minecraft.profiler.Profiler;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.GameType;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldProviderSurface;
+import net.minecraft.world.WorldSettings;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraft.world.storage.WorldInfo;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A server side world with no chunks, just the block states and tiles a benchmark puts in it.
+ */
+class BenchWorld extends World {
+
+	private final Map<BlockPos, IBlockState> states = new HashMap<>();
+	private final Map<BlockPos, TileEntity> tiles = new HashMap<>();
+
+	int droppedEntities;
+
+	BenchWorld(long seed) {
+		super(null, new WorldInfo(new WorldSettings(seed, GameType.SURVIVAL, false, false, WorldType.FLAT), "pipe_benchmark"), new WorldProviderSurface(), new Profiler(), false);
+		rand.setSeed(seed);
+	}
+
+	void place(BlockPos pos, IBlockState state, TileEntity tile) {
+		states.put(pos, state);
+		tiles.put(pos, tile);
+
+		tile.setWorld(this);
+		tile.setPos(pos);
+		tile.onLoad();
+	}
+
+	void advanceTime() {
+		worldInfo.setWorldTotalTime(worldInfo.getWorldTotalTime() + 1);
+	}
+
+	@Nonnull
+	@Override
+	public IBlockState getBlockState(@Nonnull BlockPos pos) {
+		IBlockState state = states.get(pos);
+		return state == null ? Blocks.AIR.getDefaultState() : state;
+	}
+
+	@Nullable
+	@Override
+	public TileEntity getTileEntity(@Nonnull BlockPos pos) {
+		return tiles.get(pos);
+	}
+
+	@Override
+	public boolean setBlockToAir(@Nonnull BlockPos pos) {
+		states.remove(pos);
+		TileEntity tile = tiles.remove(pos);
+		if(tile != null)
+			tile.invalidate();
+		return true;
+	}
+
+	@Override
+	public boolean spawnEntity(@Nonnull Entity entity) {
+		droppedEntities++;
+		return true;
+	}
+
+	@Override
+	public void updateComparatorOutputLevel(@Nonnull BlockPos pos, @Nonnull Block block) {
+		// Nothing around to read it
+	}
+
+	@Nonnull
+	@Override
+	protected IChunkProvider createChunkProvider() {
+		throw new UnsupportedOperationException("Benchmark worlds have no chunks");
+	}
+
+	@Override
+	protected boolean isChunkLoaded(int x, int z, boolean allowEmpty) {
+		return true;
+	}
+
+}
@@ -0,0 +1,158 @@
+package vazkii.quark.oddities.tile;
+
+import net.minecraft.block.Block;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.capabilities.CapabilityManager;
+import net.minecraftforge.fml.relauncher.ReflectionHelper;
+import net.minecraftforge.items.CapabilityItemHandler;
+import net.minecraftforge.items.IItemHandler;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import vazkii.quark.oddities.block.BlockPipe;
+import vazkii.quark.oddities.feature.Pipes;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs pipe graphs headless for a set number of ticks, and reports how fast items get through
+ * and what each pipe update costs. Every item fed in has to be accounted for at the end, so
+ * this also catches items being lost or duplicated by changes to routing or passing out.
+ *
+ * Run through gradlew benchmark, not the regular test task. Sizes can be changed through system
+ * properties, e.g. gradlew benchmark -Dquark.pipebench.ticks=12000
+ */
+public class PipeBenchmark {
+
+	private static final int TICKS = Integer.getInteger("quark.pipebench.ticks", 2400);
+	private static final int WARMUP_TICKS = Integer.getInteger("quark.pipebench.warmup", 600);
+	private static final int FEED_INTERVAL = Integer.getInteger("quark.pipebench.feedInterval", 8);
+	private static final long SEED = Long.getLong("quark.pipebench.seed", 0L);
+
+	private static final int LINE_LENGTH = Integer.getInteger("quark.pipebench.line", 64);
+	private static final int GRID_SIZE = Integer.getInteger("quark.pipebench.grid", 16);
+	private static final int MERGE_BRANCHES = Integer.getInteger("quark.pipebench.branches", 8);
+	private static final int MERGE_LENGTH = Integer.getInteger("quark.pipebench.branchLength", 16);
+
+	private static final com.sun.management.ThreadMXBean allocationBean = getAllocationBean();
+
+	private static Block pipe;
+
+	@BeforeClass
+	public static void setup() {
+		Bootstrap.register();
+		injectItemHandlerCapability();
+		pipe = new BlockPipe();
+
+		Pipes.pipeSpeed = 10;
+		Pipes.maxPipeItems = 0;
+		Pipes.incrementalSync = true;
+		Pipes.profilePipes = false;
+	}
+
+	@Test
+	public void longLine() {
+		PipeGraph graph = PipeGraph.line(pipe, SEED, LINE_LENGTH);
+		run(graph);
+		assertTrue("Nothing made it down the line", graph.target.received > 0);
+	}
+
+	@Test
+	public void grid() {
+		run(PipeGraph.grid(pipe, SEED, GRID_SIZE, GRID_SIZE));
+	}
+
+	@Test
+	public void manyToOneMerge() {
+		PipeGraph graph = PipeGraph.merge(pipe, SEED, MERGE_BRANCHES, MERGE_LENGTH);
+		run(graph);
+		assertTrue("Nothing made it through the merge", graph.target.received > 0);
+	}
+
+	private static void run(PipeGraph graph) {
+		ItemStack stack = new ItemStack(Items.IRON_INGOT);
+		long threadId = Thread.currentThread().getId();
+
+		int inserted = 0, deliveredBefore = 0;
+		long nanos = 0, maxNanos = 0, allocated = 0, updates = 0;
+
+		for(int tick = 0; tick < WARMUP_TICKS + TICKS; tick++) {
+			if(tick == WARMUP_TICKS)
+				deliveredBefore = graph.target.received;
+
+			if(tick % FEED_INTERVAL == 0)
+				for(PipeGraph.Feed feed : graph.feeds) {
+					feed.pipe.passIn(stack.copy(), feed.from);
+					inserted++;
+				}
+
+			boolean measured = tick >= WARMUP_TICKS;
+			if(measured)
+				for(TilePipe pipe : graph.pipes)
+					if(!pipe.pipeItems.isEmpty())
+						updates++;
+
+			long allocatedBefore = allocationBean == null ? 0 : allocationBean.getThreadAllocatedBytes(threadId);
+			long start = System.nanoTime();
+
+			PipeTicker.tick(graph.world);
+
+			long time = System.nanoTime() - start;
+			if(measured) {
+				nanos += time;
+				maxNanos = Math.max(maxNanos, time);
+				if(allocationBean != null)
+					allocated += allocationBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+			}
+
+			graph.world.advanceTime();
+		}
+
+		PipeTicker.unload(graph.world);
+
+		int delivered = graph.target.received - deliveredBefore;
+		System.out.println(String.format("%s (%d pipes, %d ticks): %.0f items/s, %.1f items/game s, %.2f us/update, %.3f ms/tick avg, %.3f ms worst, %s",
+				graph.name, graph.pipes.size(), TICKS,
+				nanos == 0 ? 0 : delivered / (nanos / 1e9), delivered / (TICKS / 20.0),
+				updates == 0 ? 0 : nanos / 1e3 / updates, nanos / 1e6 / TICKS, maxNanos / 1e6,
+				allocationBean == null ? "allocations not tracked" : String.format("%d bytes allocated/tick", allocated / TICKS)));
+
+		assertEquals("Items were dropped out of the pipes", 0, graph.world.droppedEntities);
+		assertEquals("Items were lost or duplicated", inserted, graph.target.received + graph.getItemsReturned() + graph.getItemsInPipes());
+	}
+
+	/**
+	 * Capabilities are normally injected by FML while mods load, which doesn't happen here. Without
+	 * this, the item handler capability stays null and every tile looks like it has one.
+	 */
+	@SuppressWarnings("unchecked")
+	private static void injectItemHandlerCapability() {
+		if(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY != null)
+			return;
+
+		CapabilityItemHandler.register();
+		Map<String, Capability<?>> providers = ReflectionHelper.getPrivateValue(CapabilityManager.class, CapabilityManager.INSTANCE, "providers");
+		CapabilityItemHandler.ITEM_HANDLER_CAPABILITY = (Capability<IItemHandler>) providers.get(IItemHandler.class.getName().intern());
+		assertNotNull("Couldn't set up the item handler capability", CapabilityItemHandler.ITEM_HANDLER_CAPABILITY);
+	}
+
+	private static com.sun.management.ThreadMXBean getAllocationBean() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if(bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+			if(sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled())
+				return sunBean;
+		}
+
+		return null;
+	}
+
+}
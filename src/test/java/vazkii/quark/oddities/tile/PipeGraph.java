@@ -0,0 +1,191 @@
+package vazkii.quark.oddities.tile;
+
+import net.minecraft.block.Block;
+import net.minecraft.init.Blocks;
+import net.minecraft.item.ItemStack;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.items.CapabilityItemHandler;
+import net.minecraftforge.items.IItemHandler;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A layout of pipes in a {@link BenchWorld}, with inventories feeding items into it and one
+ * inventory at the end collecting them. Items that find their way back out of a feeding pipe
+ * end up in the inventory behind it rather than on the ground.
+ */
+class PipeGraph {
+
+	final String name;
+	final BenchWorld world;
+	final List<TilePipe> pipes = new ArrayList<>();
+	final List<Feed> feeds = new ArrayList<>();
+	Inventory target;
+
+	private final Block block;
+
+	private PipeGraph(String name, Block block, long seed) {
+		this.name = name;
+		this.block = block;
+		world = new BenchWorld(seed);
+	}
+
+	/**
+	 * A straight line of pipes along X, fed from the west end into an inventory at the east end.
+	 */
+	static PipeGraph line(Block block, long seed, int length) {
+		PipeGraph graph = new PipeGraph("line of " + length, block, seed);
+		for(int x = 0; x < length; x++)
+			graph.pipe(new BlockPos(x, 0, 0));
+
+		graph.feed(BlockPos.ORIGIN, EnumFacing.WEST);
+		graph.target(new BlockPos(length, 0, 0));
+		return graph;
+	}
+
+	/**
+	 * A flat grid of pipes, fed from one corner into an inventory past the opposite one. Items
+	 * wander around it at random, so this is mostly a test of routing decisions.
+	 */
+	static PipeGraph grid(Block block, long seed, int width, int depth) {
+		PipeGraph graph = new PipeGraph(width + "x" + depth + " grid", block, seed);
+		for(int x = 0; x < width; x++)
+			for(int z = 0; z < depth; z++)
+				graph.pipe(new BlockPos(x, 0, z));
+
+		graph.feed(BlockPos.ORIGIN, EnumFacing.WEST);
+		graph.target(new BlockPos(width, 0, depth - 1));
+		return graph;
+	}
+
+	/**
+	 * Parallel lines along X, each fed from its west end, all ending in one collecting line along
+	 * Z with the inventory halfway down its east side.
+	 */
+	static PipeGraph merge(Block block, long seed, int branches, int length) {
+		PipeGraph graph = new PipeGraph(branches + " lines of " + length + " merging", block, seed);
+		for(int branch = 0; branch < branches; branch++) {
+			for(int x = 0; x < length; x++)
+				graph.pipe(new BlockPos(x, 0, branch * 2));
+
+			graph.feed(new BlockPos(0, 0, branch * 2), EnumFacing.WEST);
+		}
+
+		for(int z = 0; z <= (branches - 1) * 2; z++)
+			graph.pipe(new BlockPos(length, 0, z));
+
+		graph.target(new BlockPos(length + 1, 0, branches - 1));
+		return graph;
+	}
+
+	private void pipe(BlockPos pos) {
+		TilePipe pipe = new TilePipe();
+		world.place(pos, block.getDefaultState(), pipe);
+		pipes.add(pipe);
+	}
+
+	private void feed(BlockPos pos, EnumFacing from) {
+		Inventory source = new Inventory();
+		world.place(pos.offset(from), Blocks.CHEST.getDefaultState(), source);
+		feeds.add(new Feed((TilePipe) world.getTileEntity(pos), from, source));
+	}
+
+	private void target(BlockPos pos) {
+		target = new Inventory();
+		world.place(pos, Blocks.CHEST.getDefaultState(), target);
+	}
+
+	int getItemsInPipes() {
+		int count = 0;
+		for(TilePipe pipe : pipes)
+			for(int i = 0; i < pipe.pipeItems.size(); i++)
+				count += pipe.pipeItems.get(i).stack.getCount();
+
+		return count;
+	}
+
+	int getItemsReturned() {
+		int count = 0;
+		for(Feed feed : feeds)
+			count += feed.source.received;
+
+		return count;
+	}
+
+	static class Feed {
+
+		final TilePipe pipe;
+		final EnumFacing from;
+		final Inventory source;
+
+		Feed(TilePipe pipe, EnumFacing from, Inventory source) {
+			this.pipe = pipe;
+			this.from = from;
+			this.source = source;
+		}
+
+	}
+
+	/**
+	 * Takes everything it's given and only counts it.
+	 */
+	static class Inventory extends TileEntity implements IItemHandler {
+
+		int received;
+
+		@Override
+		public boolean hasCapability(@Nonnull Capability<?> capability, @Nullable EnumFacing facing) {
+			return capability != null && capability == CapabilityItemHandler.ITEM_HANDLER_CAPABILITY;
+		}
+
+		@Nullable
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T getCapability(@Nonnull Capability<T> capability, @Nullable EnumFacing facing) {
+			return hasCapability(capability, facing) ? (T) this : null;
+		}
+
+		@Override
+		public int getSlots() {
+			return 1;
+		}
+
+		@Nonnull
+		@Override
+		public ItemStack getStackInSlot(int slot) {
+			return ItemStack.EMPTY;
+		}
+
+		@Nonnull
+		@Override
+		public ItemStack insertItem(int slot, @Nonnull ItemStack stack, boolean simulate) {
+			if(!simulate)
+				received += stack.getCount();
+			return ItemStack.EMPTY;
+		}
+
+		@Nonnull
+		@Override
+		public ItemStack extractItem(int slot, int amount, boolean simulate) {
+			return ItemStack.EMPTY;
+		}
+
+		@Override
+		public int getSlotLimit(int slot) {
+			return 64;
+		}
+
+		@Override
+		public boolean isItemValid(int slot, @Nonnull ItemStack stack) {
+			return true;
+		}
+
+	}
+
+}